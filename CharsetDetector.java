@@ -0,0 +1,89 @@
+package org.codes_maze.reader;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+public final class CharsetDetector {
+    private static final String LEGACY_CHARSET = "windows-1252";
+    
+    private CharsetDetector() {
+    }
+    
+    public static Charset detect(byte[] sample, int length) throws IOException {
+        if (startsWith(sample, length, 0xEF, 0xBB, 0xBF)) {
+            return StandardCharsets.UTF_8;
+        }
+        if (startsWith(sample, length, 0xFE, 0xFF) || startsWith(sample, length, 0xFF, 0xFE)) {
+            throw new IOException("UTF-16 files are not supported: lines are indexed on single-byte newlines");
+        }
+        if (isUtf8(sample, length)) {
+            return StandardCharsets.UTF_8;
+        }
+        return Charset.isSupported(LEGACY_CHARSET) ? Charset.forName(LEGACY_CHARSET) : StandardCharsets.ISO_8859_1;
+    }
+    
+    public static int bomLength(byte[] sample, int length) {
+        return startsWith(sample, length, 0xEF, 0xBB, 0xBF) ? 3 : 0;
+    }
+    
+    static boolean isUtf8(byte[] data, int length) {
+        int i = 0;
+        while (i < length) {
+            int lead = data[i] & 0xFF;
+            if (lead < 0x80) {
+                i++;
+                continue;
+            }
+            
+            int extra;
+            int min = 0x80;
+            int max = 0xBF;
+            if (lead >= 0xC2 && lead <= 0xDF) {
+                extra = 1;
+            } else if (lead >= 0xE0 && lead <= 0xEF) {
+                extra = 2;
+                if (lead == 0xE0) {
+                    min = 0xA0;
+                } else if (lead == 0xED) {
+                    max = 0x9F;
+                }
+            } else if (lead >= 0xF0 && lead <= 0xF4) {
+                extra = 3;
+                if (lead == 0xF0) {
+                    min = 0x90;
+                } else if (lead == 0xF4) {
+                    max = 0x8F;
+                }
+            } else {
+                return false;
+            }
+            
+            for (int k = 1; k <= extra; k++) {
+                if (i + k >= length) {
+                    return true;
+                }
+                int next = data[i + k] & 0xFF;
+                if (next < min || next > max) {
+                    return false;
+                }
+                min = 0x80;
+                max = 0xBF;
+            }
+            i += extra + 1;
+        }
+        return true;
+    }
+    
+    private static boolean startsWith(byte[] data, int length, int... prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package org.codes_maze.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class FileFollower implements Closeable {
+    private static final long POLL_MILLIS = 250;
+    
+    public interface Listener {
+        void onAppended(MappedTextFile file);
+        void onReopened(MappedTextFile file);
+    }
+    
+    private final Path path;
+    private final WatchService watchService;
+    private MappedTextFile file;
+    private Object fileKey;
+    
+    public FileFollower(MappedTextFile file) throws IOException {
+        this.path = file.getFile().toPath().toAbsolutePath();
+        this.file = file;
+        this.fileKey = readFileKey();
+        this.watchService = path.getFileSystem().newWatchService();
+        path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+    
+    public void run(Listener listener, BooleanSupplier cancelled) throws IOException, InterruptedException {
+        while (!cancelled.getAsBoolean()) {
+            WatchKey key = watchService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (key != null) {
+                key.pollEvents();
+                key.reset();
+            }
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            
+            boolean truncated = !file.refresh();
+            if (!truncated && file.getIndexedBytes() < file.getSize()) {
+                file.indexAll();
+                listener.onAppended(file);
+            }
+            
+            Object currentKey = readFileKey();
+            boolean replaced = currentKey != null && fileKey != null && !currentKey.equals(fileKey);
+            if (truncated || replaced) {
+                reopen(listener);
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+    
+    private void reopen(Listener listener) throws IOException {
+        MappedTextFile reopened;
+        try {
+            reopened = new MappedTextFile(path.toFile());
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        try {
+            reopened.indexAll();
+        } catch (IOException e) {
+            reopened.close();
+            throw e;
+        }
+        file = reopened;
+        fileKey = readFileKey();
+        listener.onReopened(reopened);
+    }
+    
+    private Object readFileKey() throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return fileKey;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.codes_maze.reader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class LineIndex implements Closeable {
+    private static final int BUFFERED_ENTRIES = 8192;
+    
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFERED_ENTRIES * Long.BYTES);
+    private ByteBuffer readBuffer = ByteBuffer.allocateDirect(1024 * Long.BYTES);
+    private long size;
+    private long flushedSize;
+    
+    public LineIndex() throws IOException {
+        Path path = Files.createTempFile("line-index", ".bin");
+        this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+    }
+    
+    public synchronized void add(long offset) throws IOException {
+        if (!writeBuffer.hasRemaining()) {
+            flush();
+        }
+        writeBuffer.putLong(offset);
+        size++;
+    }
+    
+    public synchronized void add(long[] offsets, int count) throws IOException {
+        int added = 0;
+        while (added < count) {
+            if (!writeBuffer.hasRemaining()) {
+                flush();
+            }
+            int batch = Math.min(count - added, writeBuffer.remaining() / Long.BYTES);
+            writeBuffer.asLongBuffer().put(offsets, added, batch);
+            writeBuffer.position(writeBuffer.position() + batch * Long.BYTES);
+            added += batch;
+            size += batch;
+        }
+    }
+    
+    public synchronized long size() {
+        return size;
+    }
+    
+    public synchronized long get(long entry) throws IOException {
+        fill(entry, 1);
+        return readBuffer.getLong();
+    }
+    
+    public synchronized void read(long firstEntry, long[] dst, int count) throws IOException {
+        fill(firstEntry, count);
+        readBuffer.asLongBuffer().get(dst, 0, count);
+    }
+    
+    private void fill(long firstEntry, int count) throws IOException {
+        if (firstEntry < 0 || firstEntry + count > size) {
+            throw new IndexOutOfBoundsException("Entries " + firstEntry + "+" + count + " of " + size);
+        }
+        if (firstEntry + count > flushedSize) {
+            flush();
+        }
+        
+        int bytes = count * Long.BYTES;
+        if (readBuffer.capacity() < bytes) {
+            readBuffer = ByteBuffer.allocateDirect(bytes);
+        }
+        readBuffer.clear().limit(bytes);
+        
+        long position = firstEntry * Long.BYTES;
+        while (readBuffer.hasRemaining()) {
+            if (channel.read(readBuffer, position + readBuffer.position()) < 0) {
+                throw new IOException("Line index is truncated at entry " + firstEntry);
+            }
+        }
+        readBuffer.flip();
+    }
+    
+    public synchronized void flush() throws IOException {
+        writeBuffer.flip();
+        long position = flushedSize * Long.BYTES;
+        while (writeBuffer.hasRemaining()) {
+            position += channel.write(writeBuffer, position);
+        }
+        writeBuffer.clear();
+        flushedSize = size;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
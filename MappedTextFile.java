@@ -0,0 +1,303 @@
+package org.codes_maze.reader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MappedTextFile implements Closeable {
+    private static final long SEGMENT_SIZE = 1L << 30;
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int LINES_PER_PAGE = 256;
+    private static final int CACHED_PAGES = 64;
+    private static final int MAX_LINE_BYTES = 1 << 20;
+    private static final String TRUNCATION_MARKER = "…";
+    private static final int HEAD_BYTES = 256;
+    private static final int NEWLINE_BATCH = 1024;
+    
+    private final File file;
+    private final FileChannel channel;
+    private volatile long size;
+    private volatile Segments segments;
+    private final Charset charset;
+    private final CharsetDecoder decoder;
+    private final int bomLength;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private final long[] newlines = new long[NEWLINE_BATCH];
+    private byte[] head;
+    private final ByteBuffer headCheck = ByteBuffer.allocate(HEAD_BYTES);
+    
+    private final LineIndex lineIndex;
+    private final long[] pageOffsets = new long[LINES_PER_PAGE + 1];
+    private final Map<Long, String[]> pages = new LinkedHashMap<Long, String[]>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+    private byte[] pageBytes = new byte[CHUNK_SIZE];
+    private ByteBuffer lineBytes = ByteBuffer.wrap(pageBytes);
+    private CharBuffer lineChars = CharBuffer.allocate(CHUNK_SIZE);
+    private long newlineCount;
+    private volatile long lineCount;
+    private volatile long indexedBytes;
+    
+    public MappedTextFile(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.segments = map(new Segments(new long[0], new MappedByteBuffer[0]), 0, size);
+            
+            int sampleLength = (int) Math.min(CHUNK_SIZE, size);
+            read(0, chunk, 0, sampleLength);
+            this.head = Arrays.copyOf(chunk, Math.min(HEAD_BYTES, sampleLength));
+            this.charset = CharsetDetector.detect(chunk, sampleLength);
+            this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            
+            this.bomLength = CharsetDetector.bomLength(chunk, sampleLength);
+            this.lineIndex = new LineIndex();
+            lineIndex.add(bomLength);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    public synchronized boolean indexNextChunk() throws IOException {
+        if (indexedBytes >= size) {
+            return false;
+        }
+        if (lineCount > 0) {
+            pages.remove((lineCount - 1) / LINES_PER_PAGE);
+        }
+        
+        int length = (int) Math.min(CHUNK_SIZE, size - indexedBytes);
+        read(indexedBytes, chunk, 0, length);
+        
+        int found = 0;
+        for (int i = 0; i < length; i++) {
+            if (chunk[i] == '\n') {
+                if (found == NEWLINE_BATCH) {
+                    lineIndex.add(newlines, found);
+                    newlineCount += found;
+                    found = 0;
+                }
+                newlines[found++] = indexedBytes + i + 1;
+            }
+        }
+        lineIndex.add(newlines, found);
+        newlineCount += found;
+        
+        indexedBytes += length;
+        lineCount = newlineCount + (chunk[length - 1] == '\n' ? 0 : 1);
+        return indexedBytes < size;
+    }
+    
+    public synchronized boolean refresh() throws IOException {
+        long newSize = channel.size();
+        if (newSize < size || !headUnchanged()) {
+            return false;
+        }
+        if (newSize > size) {
+            segments = map(segments, size, newSize);
+            size = newSize;
+            if (head.length < HEAD_BYTES) {
+                head = new byte[(int) Math.min(HEAD_BYTES, newSize)];
+                read(0, head, 0, head.length);
+            }
+        }
+        return true;
+    }
+    
+    private boolean headUnchanged() throws IOException {
+        headCheck.clear().limit(head.length);
+        while (headCheck.hasRemaining()) {
+            if (channel.read(headCheck, headCheck.position()) < 0) {
+                return false;
+            }
+        }
+        return Arrays.equals(headCheck.array(), 0, head.length, head, 0, head.length);
+    }
+    
+    public void indexAll() throws IOException {
+        while (indexNextChunk()) {
+        }
+    }
+    
+    public long getLineCount() {
+        return lineCount;
+    }
+    
+    public synchronized String getLine(long line) throws IOException {
+        long lineCount = getLineCount();
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " of " + lineCount);
+        }
+        
+        long page = line / LINES_PER_PAGE;
+        String[] lines = pages.get(page);
+        if (lines == null) {
+            lines = decodePage(page, lineCount);
+            pages.put(page, lines);
+        }
+        return lines[(int) (line % LINES_PER_PAGE)];
+    }
+    
+    private String[] decodePage(long page, long lineCount) throws IOException {
+        long firstLine = page * LINES_PER_PAGE;
+        int count = (int) Math.min(LINES_PER_PAGE, lineCount - firstLine);
+        int offsets = (int) Math.min(count + 1, lineIndex.size() - firstLine);
+        lineIndex.read(firstLine, pageOffsets, offsets);
+        if (offsets == count) {
+            pageOffsets[count] = indexedBytes;
+        }
+        
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            long start = pageOffsets[i];
+            long end = pageOffsets[i + 1];
+            if (end > start && byteAt(end - 1) == '\n') {
+                end--;
+            }
+            if (end > start && byteAt(end - 1) == '\r') {
+                end--;
+            }
+            
+            boolean truncated = end - start > MAX_LINE_BYTES;
+            int length = (int) Math.min(end - start, MAX_LINE_BYTES);
+            if (pageBytes.length < length) {
+                pageBytes = new byte[Math.max(length, pageBytes.length * 2)];
+                lineBytes = ByteBuffer.wrap(pageBytes);
+            }
+            read(start, pageBytes, 0, length);
+            lines[i] = truncated ? decode(length, false) + TRUNCATION_MARKER : decode(length, true);
+        }
+        return lines;
+    }
+    
+    private String decode(int length, boolean complete) {
+        int capacity = (int) Math.ceil(length * (double) decoder.maxCharsPerByte());
+        if (lineChars.capacity() < capacity) {
+            lineChars = CharBuffer.allocate(Math.max(capacity, lineChars.capacity() * 2));
+        }
+        lineBytes.clear().limit(length);
+        lineChars.clear();
+        decoder.reset();
+        decoder.decode(lineBytes, lineChars, complete);
+        if (complete) {
+            decoder.flush(lineChars);
+        }
+        return lineChars.flip().toString();
+    }
+    
+    public long lineAt(long offset) throws IOException {
+        long low = 0;
+        long high = lineIndex.size() - 1;
+        while (low < high) {
+            long middle = (low + high + 1) >>> 1;
+            if (lineIndex.get(middle) <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+    
+    public int getBomLength() {
+        return bomLength;
+    }
+    
+    public Charset getCharset() {
+        return charset;
+    }
+    
+    public File getFile() {
+        return file;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public long getIndexedBytes() {
+        return indexedBytes;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            lineIndex.close();
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private Segments map(Segments mapped, long from, long to) throws IOException {
+        int count = mapped.starts.length;
+        long[] starts = Arrays.copyOf(mapped.starts, count + (int) ((to - from) / SEGMENT_SIZE) + 2);
+        MappedByteBuffer[] buffers = Arrays.copyOf(mapped.buffers, starts.length);
+        for (long position = from; position < to; ) {
+            long end = Math.min(to, (position / SEGMENT_SIZE + 1) * SEGMENT_SIZE);
+            starts[count] = position;
+            buffers[count++] = channel.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+            while (count > 1 && starts[count - 2] / SEGMENT_SIZE == position / SEGMENT_SIZE
+                && buffers[count - 2].capacity() <= 2L * buffers[count - 1].capacity()) {
+                long start = starts[count - 2];
+                buffers[count - 2] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                count--;
+            }
+            position = end;
+        }
+        return new Segments(Arrays.copyOf(starts, count), Arrays.copyOf(buffers, count));
+    }
+    
+    private byte byteAt(long offset) {
+        Segments segments = this.segments;
+        int index = segments.find(offset);
+        return segments.buffers[index].get((int) (offset - segments.starts[index]));
+    }
+    
+    void read(long offset, byte[] dst, int dstOffset, int length) {
+        Segments segments = this.segments;
+        int index = segments.find(offset);
+        while (length > 0) {
+            MappedByteBuffer segment = segments.buffers[index];
+            int position = (int) (offset - segments.starts[index]);
+            int count = Math.min(length, segment.capacity() - position);
+            segment.get(position, dst, dstOffset, count);
+            offset += count;
+            dstOffset += count;
+            length -= count;
+            index++;
+        }
+    }
+    
+    private static class Segments {
+        final long[] starts;
+        final MappedByteBuffer[] buffers;
+        
+        Segments(long[] starts, MappedByteBuffer[] buffers) {
+            this.starts = starts;
+            this.buffers = buffers;
+        }
+        
+        int find(long offset) {
+            int index = Arrays.binarySearch(starts, offset);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package org.codes_maze.model;
 
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.IntStream;
 
 public enum CellType {
     EMPTY, WALL, PLAYER, EXIT, TORCH
@@ -11,7 +15,18 @@ public enum GameState {
 }
 
 public enum Direction {
-    UP, DOWN, LEFT, RIGHT
+    UP(-1, 0), DOWN(1, 0), LEFT(0, -1), RIGHT(0, 1);
+    
+    private final int rowDelta;
+    private final int colDelta;
+    
+    Direction(int rowDelta, int colDelta) {
+        this.rowDelta = rowDelta;
+        this.colDelta = colDelta;
+    }
+    
+    public int getRowDelta() { return rowDelta; }
+    public int getColDelta() { return colDelta; }
 }
 
 public class Position {
@@ -41,124 +56,540 @@ public class Position {
 }
 
 public class Cell {
-    private CellType type;
-    private boolean revealed;
+    private final Maze maze;
+    private final int row;
+    private final int col;
+    
+    Cell(Maze maze, int row, int col) {
+        this.maze = maze;
+        this.row = row;
+        this.col = col;
+    }
+    
+    public int getRow() { return row; }
+    public int getCol() { return col; }
+    
+    public CellType getType() { return maze.getCellType(row, col); }
+    public void setType(CellType type) { maze.setCellType(row, col, type); }
+    
+    public boolean isRevealed() { return maze.isRevealed(row, col); }
+    public void setRevealed(boolean revealed) { maze.setRevealed(row, col, revealed); }
+}
+
+public class DirtyCells {
+    private static final int MAX_TRACKED = 4096;
+    
+    private long[] marked = new long[0];
+    private int[] cells = new int[0];
+    private int count;
+    private int cellCount;
+    private int firstRow;
+    private boolean allDirty = true;
+    
+    public void reset(int cellCount) {
+        this.cellCount = cellCount;
+        this.firstRow = 0;
+        int words = (cellCount + 63) >>> 6;
+        if (marked.length < words) {
+            marked = new long[words];
+            count = 0;
+        } else {
+            clear();
+        }
+        int tracked = Math.min(cellCount, MAX_TRACKED);
+        if (cells.length < tracked) {
+            cells = new int[tracked];
+        }
+        markAll();
+    }
+    
+    public void mark(int index) {
+        if (allDirty) {
+            return;
+        }
+        if (index < 0 || index >= cellCount || count == cells.length) {
+            markAll();
+            return;
+        }
+        long bit = 1L << index;
+        int word = index >>> 6;
+        if ((marked[word] & bit) == 0) {
+            marked[word] |= bit;
+            cells[count++] = index;
+        }
+    }
+    
+    public void markAll() {
+        allDirty = true;
+    }
+    
+    public void moveTo(int firstRow) {
+        if (this.firstRow != firstRow) {
+            this.firstRow = firstRow;
+            markAll();
+        }
+    }
+    
+    public int getFirstRow() {
+        return firstRow;
+    }
     
-    public Cell(CellType type) {
-        this.type = type;
-        this.revealed = false;
+    public boolean isAllDirty() {
+        return allDirty;
     }
     
-    public CellType getType() { return type; }
-    public void setType(CellType type) { this.type = type; }
+    public boolean isEmpty() {
+        return !allDirty && count == 0;
+    }
+    
+    public int size() {
+        return count;
+    }
     
-    public boolean isRevealed() { return revealed; }
-    public void setRevealed(boolean revealed) { this.revealed = revealed; }
+    public int get(int i) {
+        return cells[i];
+    }
+    
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            marked[cells[i] >>> 6] = 0;
+        }
+        count = 0;
+        allDirty = false;
+    }
 }
 
-public class Maze {
-    private int rows;
-    private int cols;
-    private Cell[][] grid;
+public class Maze implements RoomGrid {
+    protected static final CellType[] CELL_TYPES = CellType.values();
+    private static final RandomGeneratorFactory<RandomGenerator.SplittableGenerator> RANDOM_FACTORY =
+        RandomGeneratorFactory.of("L64X128MixRandom");
+    private static final int PARALLEL_CELLS = 1 << 22;
+    private static final int BAND_ROWS = 128;
+    private static final int MAX_SAMPLES = 1 << 16;
+    protected static final int TYPE_MASK = 0x07;
+    
+    protected int rows;
+    protected int cols;
+    private byte[] cells;
+    protected int playerRow = -1;
+    protected int playerCol = -1;
     private Position playerPosition;
-    private Position exitPosition;
-    private Random random;
+    protected Position exitPosition;
+    private final RandomGenerator seeds;
+    private long nextSeed;
+    private long seed;
+    protected RandomGenerator.SplittableGenerator random;
+    protected final DirtyCells dirtyCells = new DirtyCells();
+    private final Visibility visibility = new Visibility(dirtyCells);
     
     public Maze() {
-        this.random = new Random();
+        this(new SplittableRandom().nextLong());
+    }
+    
+    public Maze(long seed) {
+        this.seeds = new SplittableRandom(seed);
+        this.nextSeed = seed;
+    }
+    
+    public void setSeed(long seed) {
+        this.nextSeed = seed;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    protected void startBoard() {
+        seed = nextSeed;
+        nextSeed = seeds.nextLong();
+        random = RANDOM_FACTORY.create(seed);
     }
     
     public void initialize(int rows, int cols, double wallRatio, double torchRatio) {
+        MazeGenerator generator = (long) rows * cols >= PARALLEL_CELLS
+            ? new TiledGenerator() : new RecursiveBacktrackerGenerator();
+        initialize(rows, cols, wallRatio, torchRatio, generator);
+    }
+    
+    public void initialize(int rows, int cols, double wallRatio, double torchRatio, MazeGenerator generator) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols < 2) {
+            throw new IllegalArgumentException("Maze must have at least two cells: " + rows + "x" + cols);
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Maze has too many cells: " + rows + "x" + cols);
+        }
+        
+        startBoard();
         this.rows = rows;
         this.cols = cols;
-        this.grid = new Cell[rows][cols];
+        this.cells = new byte[Math.multiplyExact(rows, cols)];
+        Arrays.fill(cells, (byte) CellType.WALL.ordinal());
+        dirtyCells.reset(cells.length);
+        visibility.reset(rows, cols);
         
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                grid[r][c] = new Cell(CellType.EMPTY);
-            }
+        generator.generate(this, random);
+        
+        if (cells.length >= PARALLEL_CELLS) {
+            placeInBands(wallRatio, torchRatio);
+        } else {
+            placeSerially(wallRatio, torchRatio);
         }
         
-        int totalCells = rows * cols;
-        int wallCount = (int) (totalCells * wallRatio);
+        revealAround(playerRow, playerCol, 1);
+    }
+    
+    private void placeSerially(double wallRatio, double torchRatio) {
+        int totalCells = cells.length;
+        openWalls((int) (totalCells * wallRatio));
         
-        for (int i = 0; i < wallCount; i++) {
-            int r = random.nextInt(rows);
-            int c = random.nextInt(cols);
-            
-            if (grid[r][c].getType() == CellType.EMPTY) {
-                grid[r][c].setType(CellType.WALL);
-            }
+        int[] openCells = collectCells(CellType.EMPTY);
+        int remaining = openCells.length;
+        if (remaining < 2) {
+            openAnyWallNextTo(openCells[0]);
+            openCells = collectCells(CellType.EMPTY);
+            remaining = openCells.length;
         }
         
-        do {
-            int r = random.nextInt(rows);
-            int c = random.nextInt(cols);
-            
-            if (grid[r][c].getType() == CellType.EMPTY) {
-                grid[r][c].setType(CellType.PLAYER);
-                playerPosition = new Position(r, c);
-                grid[r][c].setRevealed(true);
+        int playerIndex = drawCell(openCells, remaining--);
+        playerRow = playerIndex / cols;
+        playerCol = playerIndex % cols;
+        setTypeAt(playerIndex, CellType.PLAYER);
+        
+        int exitIndex = -1;
+        int bestDistance = -1;
+        int bestSlot = -1;
+        while (remaining > 0) {
+            int index = drawCell(openCells, remaining--);
+            int distance = Math.abs(index / cols - playerRow) + Math.abs(index % cols - playerCol);
+            if (distance > 3) {
+                exitIndex = index;
                 break;
             }
-        } while (true);
-        
-        do {
-            int r = random.nextInt(rows);
-            int c = random.nextInt(cols);
-            
-            if (grid[r][c].getType() == CellType.EMPTY && 
-                (Math.abs(r - playerPosition.getRow()) + Math.abs(c - playerPosition.getCol()) > 3)) {
-                grid[r][c].setType(CellType.EXIT);
-                exitPosition = new Position(r, c);
-                break;
+            if (distance > bestDistance) {
+                bestDistance = distance;
+                bestSlot = remaining;
             }
-        } while (true);
+        }
+        if (exitIndex < 0) {
+            exitIndex = openCells[bestSlot];
+        }
+        setTypeAt(exitIndex, CellType.EXIT);
+        exitPosition = new Position(exitIndex / cols, exitIndex % cols);
         
         int torchCount = (int) (totalCells * torchRatio);
-        int placedTorches = 0;
-        
-        while (placedTorches < torchCount) {
-            int r = random.nextInt(rows);
-            int c = random.nextInt(cols);
-            
-            if (grid[r][c].getType() == CellType.EMPTY) {
-                grid[r][c].setType(CellType.TORCH);
-                placedTorches++;
+        for (int placed = 0; placed < torchCount && remaining > 0; placed++) {
+            setTypeAt(drawCell(openCells, remaining--), CellType.TORCH);
+        }
+    }
+    
+    private void placeInBands(double wallRatio, double torchRatio) {
+        int bands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+        RandomGenerator[] streams = new RandomGenerator[bands];
+        for (int band = 0; band < bands; band++) {
+            streams[band] = random.split();
+        }
+        int[] counts = new int[bands];
+        int[] quotas = new int[bands];
+        
+        long walls = countInBands(CellType.WALL, counts);
+        long excessWalls = walls - (long) (cells.length * wallRatio);
+        if (excessWalls > 0) {
+            share(counts, walls, excessWalls, quotas);
+            IntStream.range(0, bands).parallel().forEach(band ->
+                openWallsInBand(band, counts[band], quotas[band], streams[band]));
+        }
+        
+        int playerIndex = sampleEmptyCell(-1, -1);
+        playerRow = playerIndex / cols;
+        playerCol = playerIndex % cols;
+        setTypeAt(playerIndex, CellType.PLAYER);
+        
+        int exitIndex = sampleEmptyCell(playerRow, playerCol);
+        setTypeAt(exitIndex, CellType.EXIT);
+        exitPosition = new Position(exitIndex / cols, exitIndex % cols);
+        
+        long emptyCells = countInBands(CellType.EMPTY, counts);
+        long torchCount = Math.min(emptyCells, (long) (cells.length * torchRatio));
+        if (torchCount > 0) {
+            share(counts, emptyCells, torchCount, quotas);
+            IntStream.range(0, bands).parallel().forEach(band ->
+                placeTorchesInBand(band, counts[band], quotas[band], streams[band]));
+        }
+    }
+    
+    private long countInBands(CellType type, int[] counts) {
+        IntStream.range(0, counts.length).parallel().forEach(band ->
+            counts[band] = countCells(type, band * BAND_ROWS * cols, Math.min(rows, (band + 1) * BAND_ROWS) * cols));
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+    
+    private static void share(int[] counts, long total, long target, int[] quotas) {
+        long assigned = 0;
+        for (int band = 0; band < counts.length; band++) {
+            quotas[band] = (int) (target * counts[band] / total);
+            assigned += quotas[band];
+        }
+        for (int band = 0; assigned < target; band = (band + 1) % counts.length) {
+            if (quotas[band] < counts[band]) {
+                quotas[band]++;
+                assigned++;
+            }
+        }
+    }
+    
+    private void openWallsInBand(int band, int wallCount, int quota, RandomGenerator random) {
+        int firstRow = band * BAND_ROWS;
+        int endRow = Math.min(rows, firstRow + BAND_ROWS);
+        int[] walls = collectCells(CellType.WALL, firstRow * cols, endRow * cols, wallCount);
+        int remaining = walls.length;
+        while (quota > 0 && remaining > 0) {
+            int index = drawCell(walls, remaining--, random);
+            if (hasOpenNeighbor(index, firstRow, endRow)) {
+                setTypeAt(index, CellType.EMPTY);
+                quota--;
+            }
+        }
+    }
+    
+    private void placeTorchesInBand(int band, int emptyCount, int quota, RandomGenerator random) {
+        int firstRow = band * BAND_ROWS;
+        int endRow = Math.min(rows, firstRow + BAND_ROWS);
+        int[] emptyCells = collectCells(CellType.EMPTY, firstRow * cols, endRow * cols, emptyCount);
+        for (int remaining = emptyCells.length; quota > 0; quota--) {
+            setTypeAt(drawCell(emptyCells, remaining--, random), CellType.TORCH);
+        }
+    }
+    
+    private int sampleEmptyCell(int awayRow, int awayCol) {
+        for (int attempt = 0; attempt < MAX_SAMPLES; attempt++) {
+            int index = random.nextInt(cells.length);
+            if (isEmptyAwayFrom(index, awayRow, awayCol)) {
+                return index;
             }
         }
         
-        revealAdjacentCells(playerPosition);
+        int start = random.nextInt(cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            int index = (int) ((start + (long) i) % cells.length);
+            if (isEmptyAwayFrom(index, awayRow, awayCol)) {
+                return index;
+            }
+        }
+        throw new IllegalStateException("Maze has no free cell left for the player or the exit");
+    }
+    
+    private boolean isEmptyAwayFrom(int index, int row, int col) {
+        return typeAt(index) == CellType.EMPTY
+            && (row < 0 || Math.abs(index / cols - row) + Math.abs(index % cols - col) > 3);
+    }
+    
+    private int drawCell(int[] pool, int size) {
+        return drawCell(pool, size, random);
+    }
+    
+    private static int drawCell(int[] pool, int size, RandomGenerator random) {
+        int slot = random.nextInt(size);
+        int index = pool[slot];
+        pool[slot] = pool[size - 1];
+        pool[size - 1] = index;
+        return index;
+    }
+    
+    private void openWalls(int targetWalls) {
+        int[] walls = collectCells(CellType.WALL);
+        int wallCount = walls.length;
+        int remaining = wallCount;
+        
+        while (wallCount > targetWalls && remaining > 0) {
+            int index = drawCell(walls, remaining--);
+            if (hasOpenNeighbor(index)) {
+                setTypeAt(index, CellType.EMPTY);
+                wallCount--;
+            }
+        }
+    }
+    
+    private void openAnyWallNextTo(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        if (col + 1 < cols) {
+            setTypeAt(index + 1, CellType.EMPTY);
+        } else if (col > 0) {
+            setTypeAt(index - 1, CellType.EMPTY);
+        } else if (row + 1 < rows) {
+            setTypeAt(index + cols, CellType.EMPTY);
+        } else {
+            setTypeAt(index - cols, CellType.EMPTY);
+        }
+    }
+    
+    private boolean hasOpenNeighbor(int index) {
+        return hasOpenNeighbor(index, 0, rows);
+    }
+    
+    private boolean hasOpenNeighbor(int index, int firstRow, int endRow) {
+        int row = index / cols;
+        int col = index % cols;
+        return (row > firstRow && typeAt(index - cols) != CellType.WALL)
+            || (row < endRow - 1 && typeAt(index + cols) != CellType.WALL)
+            || (col > 0 && typeAt(index - 1) != CellType.WALL)
+            || (col < cols - 1 && typeAt(index + 1) != CellType.WALL);
+    }
+    
+    private int[] collectCells(CellType type) {
+        return collectCells(type, 0, cells.length, countCells(type));
+    }
+    
+    private int[] collectCells(CellType type, int start, int end, int expected) {
+        int ordinal = type.ordinal();
+        int[] result = new int[expected];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if ((cells[i] & TYPE_MASK) == ordinal) {
+                result[count++] = i;
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public int getRoomRows() {
+        return (rows + 1) / 2;
+    }
+    
+    @Override
+    public int getRoomCols() {
+        return (cols + 1) / 2;
+    }
+    
+    @Override
+    public void carveRoom(int roomRow, int roomCol) {
+        setCellType(2 * roomRow, 2 * roomCol, CellType.EMPTY);
+    }
+    
+    @Override
+    public void carvePassage(int roomRow, int roomCol, int otherRow, int otherCol) {
+        carveRoom(roomRow, roomCol);
+        carveRoom(otherRow, otherCol);
+        setCellType(roomRow + otherRow, roomCol + otherCol, CellType.EMPTY);
+    }
+    
+    public boolean isInside(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
     }
     
     public Cell getCell(int row, int col) {
-        if (row >= 0 && row < rows && col >= 0 && col < cols) {
-            return grid[row][col];
+        if (isInside(row, col)) {
+            return new Cell(this, row, col);
         }
         return null;
     }
     
+    public CellType getCellType(int row, int col) {
+        return typeAt(row * cols + col);
+    }
+    
+    public void setCellType(int row, int col, CellType type) {
+        setTypeAt(row * cols + col, type);
+    }
+    
+    public boolean isRevealed(int row, int col) {
+        return visibility.isRevealed(row, col);
+    }
+    
+    public void setRevealed(int row, int col, boolean revealed) {
+        visibility.setRevealed(row, col, revealed);
+    }
+    
+    public void revealAround(int row, int col, int radius) {
+        visibility.revealRect(row - radius, col - radius, row + radius, col + radius);
+    }
+    
+    public void revealLineOfSight(int row, int col, int radius) {
+        Visibility.shadowcast(this, row, col, radius);
+    }
+    
+    public Visibility getVisibility() {
+        return visibility;
+    }
+    
+    boolean isPassable(int index) {
+        return (cells[index] & TYPE_MASK) != CellType.WALL.ordinal();
+    }
+    
+    public int countCells(CellType type) {
+        return countCells(type, 0, cells.length);
+    }
+    
+    private int countCells(CellType type, int start, int end) {
+        int ordinal = type.ordinal();
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if ((cells[i] & TYPE_MASK) == ordinal) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public int countRevealed() {
+        return visibility.count();
+    }
+    
+    private CellType typeAt(int index) {
+        return CELL_TYPES[cells[index] & TYPE_MASK];
+    }
+    
+    private void setTypeAt(int index, CellType type) {
+        writeCell(index, (byte) ((cells[index] & ~TYPE_MASK) | type.ordinal()));
+    }
+    
+    private void writeCell(int index, byte value) {
+        if (cells[index] != value) {
+            cells[index] = value;
+            dirtyCells.mark(index);
+        }
+    }
+    
+    public DirtyCells getDirtyCells() {
+        return dirtyCells;
+    }
+    
+    byte[] getCellData() {
+        return cells;
+    }
+    
+    byte[] restore(int rows, int cols, int playerRow, int playerCol, int exitRow, int exitCol) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = new byte[Math.multiplyExact(rows, cols)];
+        this.playerRow = playerRow;
+        this.playerCol = playerCol;
+        this.exitPosition = new Position(exitRow, exitCol);
+        dirtyCells.reset(cells.length);
+        visibility.reset(rows, cols);
+        return cells;
+    }
+    
     public void movePlayer(Position newPos) {
-        CellType destType = grid[newPos.getRow()][newPos.getCol()].getType();
+        movePlayer(newPos.getRow(), newPos.getCol());
+    }
+    
+    public void movePlayer(int row, int col) {
+        CellType destType = getCellType(row, col);
         
-        grid[playerPosition.getRow()][playerPosition.getCol()].setType(CellType.EMPTY);
+        setCellType(playerRow, playerCol, CellType.EMPTY);
         
         if (destType != CellType.EXIT) {
-            grid[newPos.getRow()][newPos.getCol()].setType(CellType.PLAYER);
+            setCellType(row, col, CellType.PLAYER);
         }
         
-        playerPosition = newPos;
-    }
-    
-    private void revealAdjacentCells(Position pos) {
-        int row = pos.getRow();
-        int col = pos.getCol();
-        
-        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
-            for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
-                grid[r][c].setRevealed(true);
-            }
-        }
+        playerRow = row;
+        playerCol = col;
     }
     
     public int getRows() {
@@ -170,9 +601,23 @@ public class Maze {
     }
     
     public Position getPlayerPosition() {
+        if (playerRow < 0) {
+            return null;
+        }
+        if (playerPosition == null || playerPosition.getRow() != playerRow || playerPosition.getCol() != playerCol) {
+            playerPosition = new Position(playerRow, playerCol);
+        }
         return playerPosition;
     }
     
+    public int getPlayerRow() {
+        return playerRow;
+    }
+    
+    public int getPlayerCol() {
+        return playerCol;
+    }
+    
     public Position getExitPosition() {
         return exitPosition;
     }
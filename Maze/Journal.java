@@ -0,0 +1,389 @@
+package org.codes_maze.journal;
+
+import org.codes_maze.controller.MazeController;
+import org.codes_maze.controller.MoveRecorder;
+import org.codes_maze.model.*;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+public class MoveJournal implements MoveRecorder, Closeable {
+    public static final String EXTENSION = ".journal";
+    
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(Format.BUFFER_SIZE);
+    private long bits;
+    private int bitCount;
+    private boolean inGame;
+    private boolean skipping;
+    private long operations;
+    
+    public MoveJournal(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            buffer.putInt(Format.MAGIC).putShort(Format.VERSION);
+        }
+    }
+    
+    @Override
+    public void gameStarted(int rows, int cols, double wallRatio, double torchRatio, MazeGenerator generator, long seed) {
+        byte[] name = generator == null ? new byte[0] : Format.describe(generator).getBytes(StandardCharsets.UTF_8);
+        if (name.length > Format.MAX_GENERATOR_NAME) {
+            throw new IllegalArgumentException("Generator description too long to record: " + name.length + " bytes");
+        }
+        endGame();
+        ensure(1 + 4 + 4 + 8 + 8 + 8 + 2 + name.length);
+        buffer.put(Format.GAME)
+            .putInt(rows)
+            .putInt(cols)
+            .putDouble(wallRatio)
+            .putDouble(torchRatio)
+            .putLong(seed)
+            .putShort((short) name.length)
+            .put(name);
+        inGame = true;
+        skipping = false;
+    }
+    
+    @Override
+    public void gameLoaded() {
+        endGame();
+        skipping = true;
+    }
+    
+    @Override
+    public void moved(Direction direction) {
+        write(direction.ordinal());
+    }
+    
+    @Override
+    public void torchUsed() {
+        write(Format.OP_TORCH);
+    }
+    
+    public long getOperationCount() {
+        return operations;
+    }
+    
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            endGame();
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private void write(int op) {
+        if (skipping) {
+            return;
+        }
+        if (!inGame) {
+            throw new IllegalStateException("No game has been started in this journal");
+        }
+        bits |= (long) op << bitCount;
+        bitCount += Format.OP_BITS;
+        if (bitCount >= 8) {
+            ensure(1);
+            buffer.put((byte) bits);
+            bits >>>= 8;
+            bitCount -= 8;
+        }
+        operations++;
+    }
+    
+    private void endGame() {
+        if (!inGame) {
+            return;
+        }
+        bits |= (long) Format.OP_END << bitCount;
+        bitCount += Format.OP_BITS;
+        bits |= -1L << bitCount;
+        ensure(2);
+        while (bitCount > 0) {
+            buffer.put((byte) bits);
+            bits >>>= 8;
+            bitCount -= 8;
+        }
+        bits = 0;
+        bitCount = 0;
+        inGame = false;
+    }
+    
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+    
+    static final class Format {
+        static final int MAGIC = 0x4A5A414D;
+        static final short VERSION = 1;
+        static final byte GAME = 0x47;
+        static final int OP_BITS = 3;
+        static final int OP_MASK = (1 << OP_BITS) - 1;
+        static final int OP_TORCH = 4;
+        static final int OP_END = 7;
+        static final int BUFFER_SIZE = 1 << 16;
+        static final int MAX_GENERATOR_NAME = 256;
+        
+        private Format() {
+        }
+        
+        static String describe(MazeGenerator generator) {
+            if (generator instanceof TiledGenerator) {
+                TiledGenerator tiled = (TiledGenerator) generator;
+                return TiledGenerator.class.getName() + "(" + tiled.getTileRooms() + ","
+                    + describe(tiled.getTileGenerators().get()) + ")";
+            }
+            Class<?> type = generator.getClass();
+            if (!Modifier.isPublic(type.getModifiers()) || type.isAnonymousClass() || type.isSynthetic()) {
+                throw new IllegalArgumentException("Cannot record generator " + type.getName() + ": it cannot be rebuilt on replay");
+            }
+            try {
+                type.getConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Cannot record generator " + type.getName() + ": it has no public no-argument constructor");
+            }
+            return type.getName();
+        }
+        
+        static MazeGenerator create(String description) throws IOException {
+            int open = description.indexOf('(');
+            if (open < 0) {
+                return instantiate(description);
+            }
+            
+            int comma = description.indexOf(',', open);
+            if (!description.startsWith(TiledGenerator.class.getName() + "(") || comma < 0 || !description.endsWith(")")) {
+                throw new IOException("Cannot create maze generator " + description);
+            }
+            String tile = description.substring(comma + 1, description.length() - 1);
+            create(tile);
+            try {
+                int tileRooms = Integer.parseInt(description.substring(open + 1, comma));
+                return new TiledGenerator(() -> {
+                    try {
+                        return create(tile);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, tileRooms);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Cannot create maze generator " + description, e);
+            }
+        }
+        
+        private static MazeGenerator instantiate(String name) throws IOException {
+            try {
+                Class<?> type = Class.forName(name);
+                if (!MazeGenerator.class.isAssignableFrom(type)) {
+                    throw new IOException("Not a maze generator: " + name);
+                }
+                return (MazeGenerator) type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Cannot create maze generator " + name, e);
+            }
+        }
+    }
+}
+
+public class JournalReader implements Closeable {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(MoveJournal.Format.BUFFER_SIZE).flip();
+    private int bits;
+    private int bitCount;
+    private boolean inGame;
+    private int rows;
+    private int cols;
+    private double wallRatio;
+    private double torchRatio;
+    private long seed;
+    private String generatorName;
+    
+    public JournalReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (!fill(6) || buffer.getInt() != MoveJournal.Format.MAGIC) {
+                throw new IOException("Not a move journal: " + path);
+            }
+            short version = buffer.getShort();
+            if (version != MoveJournal.Format.VERSION) {
+                throw new IOException("Unsupported journal version " + version + ": " + path);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    public boolean nextGame() throws IOException {
+        while (inGame) {
+            nextOp();
+        }
+        if (!fill(1)) {
+            return false;
+        }
+        if (!fill(1 + 4 + 4 + 8 + 8 + 8 + 2) || buffer.get() != MoveJournal.Format.GAME) {
+            throw new IOException("Corrupted journal record: " + path);
+        }
+        rows = buffer.getInt();
+        cols = buffer.getInt();
+        wallRatio = buffer.getDouble();
+        torchRatio = buffer.getDouble();
+        seed = buffer.getLong();
+        int nameLength = buffer.getShort();
+        if (rows <= 0 || cols <= 0 || nameLength < 0 || nameLength > MoveJournal.Format.MAX_GENERATOR_NAME || !fill(nameLength)) {
+            throw new IOException("Corrupted journal record: " + path);
+        }
+        byte[] name = new byte[nameLength];
+        buffer.get(name);
+        generatorName = new String(name, StandardCharsets.UTF_8);
+        bits = 0;
+        bitCount = 0;
+        inGame = true;
+        return true;
+    }
+    
+    public long replay(MazeController controller) throws IOException {
+        return replay(controller, Long.MAX_VALUE);
+    }
+    
+    public long replay(MazeController controller, long maxOperations) throws IOException {
+        if (!inGame) {
+            throw new IllegalStateException("No game to replay, call nextGame() first");
+        }
+        if (generatorName.isEmpty()) {
+            controller.initializeGame(rows, cols, wallRatio, torchRatio, seed);
+        } else {
+            controller.initializeGame(rows, cols, wallRatio, torchRatio, MoveJournal.Format.create(generatorName), seed);
+        }
+        
+        long applied = 0;
+        while (applied < maxOperations) {
+            int op = nextOp();
+            if (op == MoveJournal.Format.OP_END) {
+                break;
+            }
+            boolean accepted;
+            if (op < DIRECTIONS.length) {
+                accepted = controller.movePlayer(DIRECTIONS[op]);
+            } else if (op == MoveJournal.Format.OP_TORCH) {
+                accepted = controller.useTorch();
+            } else {
+                throw new IOException("Corrupted journal operation " + op + ": " + path);
+            }
+            if (!accepted) {
+                throw new IOException("Journal does not match its maze at operation " + applied + ": " + path);
+            }
+            applied++;
+        }
+        return applied;
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    public double getWallRatio() {
+        return wallRatio;
+    }
+    
+    public double getTorchRatio() {
+        return torchRatio;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public String getGeneratorName() {
+        return generatorName;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private int nextOp() throws IOException {
+        if (bitCount < MoveJournal.Format.OP_BITS) {
+            if (!fill(1)) {
+                throw new EOFException("Journal ends in the middle of a game: " + path);
+            }
+            bits |= (buffer.get() & 0xFF) << bitCount;
+            bitCount += 8;
+        }
+        int op = bits & MoveJournal.Format.OP_MASK;
+        bits >>>= MoveJournal.Format.OP_BITS;
+        bitCount -= MoveJournal.Format.OP_BITS;
+        if (op == MoveJournal.Format.OP_END) {
+            bits = 0;
+            bitCount = 0;
+            inGame = false;
+        }
+        return op;
+    }
+    
+    private boolean fill(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            buffer.compact();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage : JournalReader <journal>");
+            return;
+        }
+        
+        MazeController controller = new MazeController();
+        try (JournalReader reader = new JournalReader(Paths.get(args[0]))) {
+            for (int game = 1; reader.nextGame(); game++) {
+                long start = System.nanoTime();
+                long operations = reader.replay(controller);
+                double millis = (System.nanoTime() - start) / 1e6;
+                System.out.printf(Locale.FRANCE, "Partie %d : %dx%d, graine %d, %d actions rejouées en %.1f ms, %s en %d pas%n",
+                    game, reader.getRows(), reader.getCols(), reader.getSeed(), operations, millis,
+                    controller.getGameState() == GameState.WON ? "gagnée" : "en cours", controller.getStepCount());
+            }
+        }
+    }
+}
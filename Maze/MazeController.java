@@ -1,55 +1,151 @@
 package org.codes_maze.controller;
 
+import org.codes_maze.metrics.GameMetrics;
 import org.codes_maze.model.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+
+public interface MoveRecorder {
+    void gameStarted(int rows, int cols, double wallRatio, double torchRatio, MazeGenerator generator, long seed);
+    
+    void gameLoaded();
+    
+    void moved(Direction direction);
+    
+    void torchUsed();
+}
+
 public class MazeController {
+    private static final int TORCH_RADIUS = 3;
+    
     private Maze maze;
+    private final Clock clock;
     private GameState gameState;
     private int availableTorches;
+    private int steps;
+    private int torchesUsed;
     private long startTime;
+    private final BreadthFirstSolver solver = new BreadthFirstSolver();
+    private MoveRecorder recorder;
     
     public MazeController() {
-        this.maze = new Maze();
+        this(new Maze());
+    }
+    
+    public MazeController(Maze maze) {
+        this(maze, Clock.systemUTC());
+    }
+    
+    public MazeController(Maze maze, Clock clock) {
+        this.maze = maze;
+        this.clock = clock;
         this.gameState = GameState.RUNNING;
         this.availableTorches = 1;
-        this.startTime = System.currentTimeMillis();
+        this.startTime = clock.millis();
     }
     
     public void initializeGame(int rows, int cols, double wallRatio, double torchRatio) {
         maze.initialize(rows, cols, wallRatio, torchRatio);
+        resetGame();
+        if (recorder != null) {
+            recorder.gameStarted(rows, cols, wallRatio, torchRatio, null, maze.getSeed());
+        }
+    }
+    
+    public void initializeGame(int rows, int cols, double wallRatio, double torchRatio, MazeGenerator generator) {
+        maze.initialize(rows, cols, wallRatio, torchRatio, generator);
+        resetGame();
+        if (recorder != null) {
+            recorder.gameStarted(rows, cols, wallRatio, torchRatio, generator, maze.getSeed());
+        }
+    }
+    
+    public void initializeGame(int rows, int cols, double wallRatio, double torchRatio, long seed) {
+        maze.setSeed(seed);
+        initializeGame(rows, cols, wallRatio, torchRatio);
+    }
+    
+    public void initializeGame(int rows, int cols, double wallRatio, double torchRatio, MazeGenerator generator, long seed) {
+        maze.setSeed(seed);
+        initializeGame(rows, cols, wallRatio, torchRatio, generator);
+    }
+    
+    private void resetGame() {
         gameState = GameState.RUNNING;
         availableTorches = 1;
-        startTime = System.currentTimeMillis();
+        steps = 0;
+        torchesUsed = 0;
+        startTime = clock.millis();
+    }
+    
+    public void setRecorder(MoveRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    public void saveGame(Path path, boolean compressed) throws IOException {
+        GameSnapshot game = new GameSnapshot(gameState, availableTorches, steps, torchesUsed, clock.millis() - startTime);
+        MazeFile.write(path, maze, game, compressed);
+    }
+    
+    public void loadGame(Path path) throws IOException {
+        Maze loaded = new Maze();
+        GameSnapshot game = MazeFile.read(path, loaded);
+        maze = loaded;
+        gameState = game.getState();
+        availableTorches = game.getAvailableTorches();
+        steps = game.getSteps();
+        torchesUsed = game.getTorchesUsed();
+        startTime = clock.millis() - game.getElapsedMillis();
+        if (recorder != null) {
+            recorder.gameLoaded();
+        }
     }
     
     public boolean movePlayer(Direction direction) {
+        if (!GameMetrics.ENABLED) {
+            return applyMove(direction);
+        }
+        long start = System.nanoTime();
+        boolean moved = applyMove(direction);
+        GameMetrics.recordMove(direction, moved, System.nanoTime() - start);
+        return moved;
+    }
+    
+    private boolean applyMove(Direction direction) {
         if (gameState != GameState.RUNNING) {
             return false;
         }
         
-        Position playerPos = maze.getPlayerPosition();
-        Position newPos = calculateNewPosition(playerPos, direction);
+        int row = maze.getPlayerRow() + direction.getRowDelta();
+        int col = maze.getPlayerCol() + direction.getColDelta();
         
-        if (!isValidPosition(newPos)) {
+        if (!maze.isInside(row, col)) {
             return false;
         }
         
-        Cell targetCell = maze.getCell(newPos.getRow(), newPos.getCol());
-        if (targetCell.getType() == CellType.WALL) {
+        CellType targetType = maze.getCellType(row, col);
+        if (targetType == CellType.WALL) {
             return false;
         }
         
-        if (targetCell.getType() == CellType.EXIT) {
+        if (targetType == CellType.EXIT) {
             gameState = GameState.WON;
         }
         
-        if (targetCell.getType() == CellType.TORCH) {
+        if (targetType == CellType.TORCH) {
             availableTorches++;
         }
         
-        maze.movePlayer(newPos);
+        maze.movePlayer(row, col);
+        steps++;
         
-        revealAdjacentCells(newPos);
+        maze.revealAround(row, col, 1);
+        
+        if (recorder != null) {
+            recorder.moved(direction);
+        }
         
         return true;
     }
@@ -60,62 +156,36 @@ public class MazeController {
         }
         
         availableTorches--;
+        torchesUsed++;
         
-        Position playerPos = maze.getPlayerPosition();
-        int row = playerPos.getRow();
-        int col = playerPos.getCol();
+        maze.revealLineOfSight(maze.getPlayerRow(), maze.getPlayerCol(), TORCH_RADIUS);
         
-        for (int r = Math.max(0, row - 2); r <= Math.min(maze.getRows() - 1, row + 2); r++) {
-            for (int c = Math.max(0, col - 2); c <= Math.min(maze.getCols() - 1, col + 2); c++) {
-                maze.getCell(r, c).setRevealed(true);
-            }
+        if (recorder != null) {
+            recorder.torchUsed();
         }
         
         return true;
     }
     
-    private Position calculateNewPosition(Position currentPos, Direction direction) {
-        int newRow = currentPos.getRow();
-        int newCol = currentPos.getCol();
-        
-        switch (direction) {
-            case UP:
-                newRow--;
-                break;
-            case DOWN:
-                newRow++;
-                break;
-            case LEFT:
-                newCol--;
-                break;
-            case RIGHT:
-                newCol++;
-                break;
+    public Direction getHint() {
+        if (gameState != GameState.RUNNING || !solver.solve(maze)) {
+            return null;
         }
-        
-        return new Position(newRow, newCol);
-    }
-    
-    private boolean isValidPosition(Position pos) {
-        return pos.getRow() >= 0 && pos.getRow() < maze.getRows() && 
-               pos.getCol() >= 0 && pos.getCol() < maze.getCols();
+        return solver.getFirstStep();
     }
     
-    private void revealAdjacentCells(Position pos) {
-        int row = pos.getRow();
-        int col = pos.getCol();
-        
-        for (int r = Math.max(0, row - 1); r <= Math.min(maze.getRows() - 1, row + 1); r++) {
-            for (int c = Math.max(0, col - 1); c <= Math.min(maze.getCols() - 1, col + 1); c++) {
-                maze.getCell(r, c).setRevealed(true);
-            }
-        }
+    public boolean isExitReachable() {
+        return solver.isExitReachable(maze);
     }
     
     public Maze getMaze() {
         return maze;
     }
     
+    public long getSeed() {
+        return maze.getSeed();
+    }
+    
     public GameState getGameState() {
         return gameState;
     }
@@ -124,11 +194,27 @@ public class MazeController {
         return availableTorches;
     }
     
+    public int getStepCount() {
+        return steps;
+    }
+    
+    public int getTorchesUsed() {
+        return torchesUsed;
+    }
+    
     public Position getPlayerPosition() {
         return maze.getPlayerPosition();
     }
     
+    public int getPlayerRow() {
+        return maze.getPlayerRow();
+    }
+    
+    public int getPlayerCol() {
+        return maze.getPlayerCol();
+    }
+    
     public long getGameTime() {
-        return (System.currentTimeMillis() - startTime) / 1000;
+        return (clock.millis() - startTime) / 1000;
     }
 }
\ No newline at end of file
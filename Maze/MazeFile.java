@@ -0,0 +1,287 @@
+package org.codes_maze.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class GameSnapshot {
+    private final GameState state;
+    private final int availableTorches;
+    private final int steps;
+    private final int torchesUsed;
+    private final long elapsedMillis;
+    
+    public GameSnapshot(GameState state, int availableTorches, int steps, int torchesUsed, long elapsedMillis) {
+        this.state = state;
+        this.availableTorches = availableTorches;
+        this.steps = steps;
+        this.torchesUsed = torchesUsed;
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public GameState getState() {
+        return state;
+    }
+    
+    public int getAvailableTorches() {
+        return availableTorches;
+    }
+    
+    public int getSteps() {
+        return steps;
+    }
+    
+    public int getTorchesUsed() {
+        return torchesUsed;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
+
+public final class MazeFile {
+    public static final String EXTENSION = ".maze";
+    public static final int VERSION = 1;
+    
+    private static final int MAGIC = 0x455A414D;
+    private static final int HEADER_SIZE = 64;
+    private static final byte ENCODING_RAW = 0;
+    private static final byte ENCODING_RLE = 1;
+    private static final int RUN_BITS = 5;
+    private static final int MAX_SHORT_RUN = (1 << RUN_BITS) - 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final GameState[] GAME_STATES = GameState.values();
+    private static final int CELL_TYPE_COUNT = CellType.values().length;
+    
+    private MazeFile() {
+    }
+    
+    public static void write(Path path, Maze maze, GameSnapshot game, boolean compressed) throws IOException {
+        byte[] cells = checkSupported(maze).getCellData();
+        if (cells == null) {
+            throw new IllegalStateException("Maze has not been initialized");
+        }
+        
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.position(HEADER_SIZE);
+                
+                long cellBytes;
+                if (compressed) {
+                    cellBytes = writeRuns(channel, buffer, cells) - HEADER_SIZE;
+                } else {
+                    flush(channel, buffer);
+                    writeFully(channel, ByteBuffer.wrap(cells));
+                    cellBytes = cells.length;
+                }
+                
+                buffer.clear();
+                int padding = (int) (-(HEADER_SIZE + cellBytes) & 7);
+                for (int i = 0; i < padding; i++) {
+                    buffer.put((byte) 0);
+                }
+                Visibility visibility = maze.getVisibility();
+                long[] words = visibility.getWords();
+                for (int i = 0, count = visibility.getWordCount(); i < count; i++) {
+                    if (buffer.remaining() < Long.BYTES) {
+                        flush(channel, buffer);
+                    }
+                    buffer.putLong(words[i]);
+                }
+                flush(channel, buffer);
+                
+                Position exit = maze.getExitPosition();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC)
+                    .putShort((short) VERSION)
+                    .put(compressed ? ENCODING_RLE : ENCODING_RAW)
+                    .put((byte) game.getState().ordinal())
+                    .putInt(maze.getRows())
+                    .putInt(maze.getCols())
+                    .putInt(maze.getPlayerRow())
+                    .putInt(maze.getPlayerCol())
+                    .putInt(exit.getRow())
+                    .putInt(exit.getCol())
+                    .putInt(game.getAvailableTorches())
+                    .putInt(game.getSteps())
+                    .putInt(game.getTorchesUsed())
+                    .putInt(0)
+                    .putLong(game.getElapsedMillis())
+                    .putLong(cellBytes)
+                    .flip();
+                channel.position(0);
+                writeFully(channel, header);
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    public static GameSnapshot read(Path path, Maze maze) throws IOException {
+        checkSupported(maze);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a maze file: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a maze file: " + path);
+            }
+            int version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported maze file version " + version + ": " + path);
+            }
+            byte encoding = header.get();
+            int state = header.get();
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int playerRow = header.getInt();
+            int playerCol = header.getInt();
+            int exitRow = header.getInt();
+            int exitCol = header.getInt();
+            int availableTorches = header.getInt();
+            int steps = header.getInt();
+            int torchesUsed = header.getInt();
+            header.getInt();
+            long elapsedMillis = header.getLong();
+            long cellBytes = header.getLong();
+            
+            if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE
+                || state < 0 || state >= GAME_STATES.length
+                || (encoding != ENCODING_RAW && encoding != ENCODING_RLE)
+                || !isInside(playerRow, playerCol, rows, cols) || !isInside(exitRow, exitCol, rows, cols)) {
+                throw new IOException("Corrupted maze file header: " + path);
+            }
+            
+            long wordCount = (long) rows * ((cols + 63) >>> 6);
+            long bitsOffset = (HEADER_SIZE + cellBytes + 7) & ~7L;
+            if (cellBytes < 0 || (encoding == ENCODING_RAW && cellBytes != (long) rows * cols)
+                || bitsOffset + wordCount * Long.BYTES != size) {
+                throw new IOException("Truncated maze file: " + path);
+            }
+            
+            byte[] cells = maze.restore(rows, cols, playerRow, playerCol, exitRow, exitCol);
+            MappedByteBuffer cellData = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, cellBytes);
+            if (encoding == ENCODING_RAW) {
+                cellData.get(cells);
+                for (byte cell : cells) {
+                    if ((cell & 0xFF) >= CELL_TYPE_COUNT) {
+                        throw new IOException("Corrupted maze cells: " + path);
+                    }
+                }
+            } else {
+                readRuns(cellData, cells, path);
+            }
+            
+            Visibility visibility = maze.getVisibility();
+            channel.map(FileChannel.MapMode.READ_ONLY, bitsOffset, wordCount * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asLongBuffer()
+                .get(visibility.getWords(), 0, visibility.getWordCount());
+            
+            return new GameSnapshot(GAME_STATES[state], availableTorches, steps, torchesUsed, elapsedMillis);
+        }
+    }
+    
+    private static Maze checkSupported(Maze maze) {
+        if (maze instanceof StreamingMaze) {
+            throw new IllegalArgumentException("Streaming mazes cannot be saved or loaded");
+        }
+        return maze;
+    }
+    
+    private static boolean isInside(int row, int col, int rows, int cols) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+    
+    private static long writeRuns(FileChannel channel, ByteBuffer buffer, byte[] cells) throws IOException {
+        long written = 0;
+        int i = 0;
+        while (i < cells.length) {
+            byte type = cells[i];
+            int run = 1;
+            while (i + run < cells.length && cells[i + run] == type) {
+                run++;
+            }
+            i += run;
+            
+            if (buffer.remaining() < 6) {
+                written += flush(channel, buffer);
+            }
+            if (run <= MAX_SHORT_RUN) {
+                buffer.put((byte) (type << RUN_BITS | run));
+            } else {
+                buffer.put((byte) (type << RUN_BITS));
+                for (int value = run; ; value >>>= 7) {
+                    if (value < 0x80) {
+                        buffer.put((byte) value);
+                        break;
+                    }
+                    buffer.put((byte) (value & 0x7F | 0x80));
+                }
+            }
+        }
+        return written + flush(channel, buffer);
+    }
+    
+    private static void readRuns(ByteBuffer in, byte[] cells, Path path) throws IOException {
+        int position = 0;
+        try {
+            while (in.hasRemaining()) {
+                int token = in.get() & 0xFF;
+                int type = token >>> RUN_BITS;
+                int run = token & MAX_SHORT_RUN;
+                if (run == 0) {
+                    for (int shift = 0; ; shift += 7) {
+                        int value = in.get() & 0xFF;
+                        run |= (value & 0x7F) << shift;
+                        if (value < 0x80) {
+                            break;
+                        }
+                        if (shift > 21) {
+                            throw new IOException("Corrupted maze cells: " + path);
+                        }
+                    }
+                }
+                if (type >= CELL_TYPE_COUNT || run <= 0 || run > cells.length - position) {
+                    throw new IOException("Corrupted maze cells: " + path);
+                }
+                Arrays.fill(cells, position, position + run, (byte) type);
+                position += run;
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated maze cells: " + path, e);
+        }
+        if (position != cells.length) {
+            throw new IOException("Truncated maze cells: " + path);
+        }
+    }
+    
+    private static int flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        writeFully(channel, buffer);
+        buffer.clear();
+        return length;
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package org.codes_maze.model;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+public interface MazeGenerator {
+    void generate(Maze maze, RandomGenerator random);
+}
+
+interface RoomGrid {
+    int getRoomRows();
+    int getRoomCols();
+    void carveRoom(int roomRow, int roomCol);
+    void carvePassage(int roomRow, int roomCol, int otherRow, int otherCol);
+}
+
+abstract class RoomGenerator implements MazeGenerator {
+    @Override
+    public void generate(Maze maze, RandomGenerator random) {
+        carve(maze, random);
+    }
+    
+    abstract void carve(RoomGrid rooms, RandomGenerator random);
+}
+
+public class RecursiveBacktrackerGenerator extends RoomGenerator {
+    @Override
+    void carve(RoomGrid rooms, RandomGenerator random) {
+        int roomRows = rooms.getRoomRows();
+        int roomCols = rooms.getRoomCols();
+        int roomCount = roomRows * roomCols;
+        
+        boolean[] visited = new boolean[roomCount];
+        int[] stack = new int[roomCount];
+        int[] neighbors = new int[4];
+        
+        int start = random.nextInt(roomCount);
+        visited[start] = true;
+        rooms.carveRoom(start / roomCols, start % roomCols);
+        stack[0] = start;
+        int top = 1;
+        
+        while (top > 0) {
+            int room = stack[top - 1];
+            int row = room / roomCols;
+            int col = room % roomCols;
+            
+            int count = 0;
+            if (row > 0 && !visited[room - roomCols]) neighbors[count++] = room - roomCols;
+            if (row < roomRows - 1 && !visited[room + roomCols]) neighbors[count++] = room + roomCols;
+            if (col > 0 && !visited[room - 1]) neighbors[count++] = room - 1;
+            if (col < roomCols - 1 && !visited[room + 1]) neighbors[count++] = room + 1;
+            
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            
+            int next = neighbors[random.nextInt(count)];
+            visited[next] = true;
+            rooms.carvePassage(row, col, next / roomCols, next % roomCols);
+            stack[top++] = next;
+        }
+    }
+}
+
+public class KruskalGenerator extends RoomGenerator {
+    @Override
+    void carve(RoomGrid rooms, RandomGenerator random) {
+        int roomRows = rooms.getRoomRows();
+        int roomCols = rooms.getRoomCols();
+        int roomCount = roomRows * roomCols;
+        
+        int[] edges = new int[roomRows * (roomCols - 1) + (roomRows - 1) * roomCols];
+        int edgeCount = 0;
+        for (int room = 0; room < roomCount; room++) {
+            if (room % roomCols < roomCols - 1) edges[edgeCount++] = room * 2;
+            if (room / roomCols < roomRows - 1) edges[edgeCount++] = room * 2 + 1;
+        }
+        
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = tmp;
+        }
+        
+        int[] parent = new int[roomCount];
+        int[] size = new int[roomCount];
+        for (int room = 0; room < roomCount; room++) {
+            parent[room] = room;
+            size[room] = 1;
+        }
+        
+        rooms.carveRoom(0, 0);
+        for (int i = 0; i < edgeCount; i++) {
+            int room = edges[i] >>> 1;
+            int other = (edges[i] & 1) == 0 ? room + 1 : room + roomCols;
+            
+            int a = find(parent, room);
+            int b = find(parent, other);
+            if (a == b) {
+                continue;
+            }
+            
+            if (size[a] < size[b]) {
+                int tmp = a;
+                a = b;
+                b = tmp;
+            }
+            parent[b] = a;
+            size[a] += size[b];
+            
+            rooms.carvePassage(room / roomCols, room % roomCols, other / roomCols, other % roomCols);
+        }
+    }
+    
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
+
+public class WilsonGenerator extends RoomGenerator {
+    @Override
+    void carve(RoomGrid rooms, RandomGenerator random) {
+        int roomRows = rooms.getRoomRows();
+        int roomCols = rooms.getRoomCols();
+        int roomCount = roomRows * roomCols;
+        
+        boolean[] inTree = new boolean[roomCount];
+        int[] next = new int[roomCount];
+        int[] neighbors = new int[4];
+        
+        int root = random.nextInt(roomCount);
+        inTree[root] = true;
+        rooms.carveRoom(root / roomCols, root % roomCols);
+        
+        for (int start = 0; start < roomCount; start++) {
+            if (inTree[start]) {
+                continue;
+            }
+            
+            int room = start;
+            while (!inTree[room]) {
+                int row = room / roomCols;
+                int col = room % roomCols;
+                
+                int count = 0;
+                if (row > 0) neighbors[count++] = room - roomCols;
+                if (row < roomRows - 1) neighbors[count++] = room + roomCols;
+                if (col > 0) neighbors[count++] = room - 1;
+                if (col < roomCols - 1) neighbors[count++] = room + 1;
+                
+                next[room] = neighbors[random.nextInt(count)];
+                room = next[room];
+            }
+            
+            room = start;
+            while (!inTree[room]) {
+                inTree[room] = true;
+                int target = next[room];
+                rooms.carvePassage(room / roomCols, room % roomCols, target / roomCols, target % roomCols);
+                room = target;
+            }
+        }
+    }
+}
+
+public class EllerGenerator extends RoomGenerator {
+    private int roomCols;
+    private int[] sets;
+    private int[] parent;
+    private int[] members;
+    private int[] picked;
+    private boolean[] hasDown;
+    private boolean[] down;
+    private int[] relabel;
+    private long randomBits;
+    private int randomBitCount;
+    
+    @Override
+    void carve(RoomGrid rooms, RandomGenerator random) {
+        int roomRows = rooms.getRoomRows();
+        start(rooms.getRoomCols());
+        
+        for (int row = 0; row < roomRows; row++) {
+            carveRow(rooms, row, row == roomRows - 1, random);
+        }
+    }
+    
+    void start(int roomCols) {
+        this.roomCols = roomCols;
+        sets = new int[roomCols];
+        parent = new int[roomCols];
+        members = new int[roomCols];
+        picked = new int[roomCols];
+        hasDown = new boolean[roomCols];
+        down = new boolean[roomCols];
+        relabel = new int[roomCols];
+        
+        for (int col = 0; col < roomCols; col++) {
+            sets[col] = col;
+        }
+        randomBitCount = 0;
+    }
+    
+    private boolean nextBit(RandomGenerator random) {
+        if (randomBitCount == 0) {
+            randomBits = random.nextLong();
+            randomBitCount = 64;
+        }
+        randomBitCount--;
+        boolean bit = (randomBits & 1) != 0;
+        randomBits >>>= 1;
+        return bit;
+    }
+    
+    void carveRow(RoomGrid rooms, int row, boolean lastRow, RandomGenerator random) {
+        for (int i = 0; i < roomCols; i++) {
+            parent[i] = i;
+        }
+        
+        rooms.carveRoom(row, 0);
+        for (int col = 0; col < roomCols - 1; col++) {
+            int a = find(parent, sets[col]);
+            int b = find(parent, sets[col + 1]);
+            if (a != b && (lastRow || nextBit(random))) {
+                parent[b] = a;
+                rooms.carvePassage(row, col, row, col + 1);
+            } else {
+                rooms.carveRoom(row, col + 1);
+            }
+        }
+        
+        if (lastRow) {
+            return;
+        }
+        
+        for (int i = 0; i < roomCols; i++) {
+            members[i] = 0;
+            hasDown[i] = false;
+            relabel[i] = -1;
+        }
+        
+        for (int col = 0; col < roomCols; col++) {
+            int set = find(parent, sets[col]);
+            sets[col] = set;
+            members[set]++;
+            if (random.nextInt(members[set]) == 0) {
+                picked[set] = col;
+            }
+            down[col] = nextBit(random);
+            hasDown[set] |= down[col];
+        }
+        
+        int nextLabel = 0;
+        for (int col = 0; col < roomCols; col++) {
+            int set = sets[col];
+            if (!hasDown[set] && picked[set] == col) {
+                down[col] = true;
+            }
+            if (down[col]) {
+                rooms.carvePassage(row, col, row + 1, col);
+                if (relabel[set] < 0) {
+                    relabel[set] = nextLabel++;
+                }
+                sets[col] = relabel[set];
+            } else {
+                sets[col] = -1;
+            }
+        }
+        
+        for (int col = 0; col < roomCols; col++) {
+            if (sets[col] < 0) {
+                sets[col] = nextLabel++;
+            }
+        }
+    }
+    
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
+
+public class TiledGenerator extends RoomGenerator {
+    private static final int DEFAULT_TILE_ROOMS = 256;
+    
+    private final Supplier<MazeGenerator> tileGenerators;
+    private final int tileRooms;
+    
+    public TiledGenerator() {
+        this(RecursiveBacktrackerGenerator::new, DEFAULT_TILE_ROOMS);
+    }
+    
+    public TiledGenerator(Supplier<MazeGenerator> tileGenerators, int tileRooms) {
+        if (tileRooms <= 0) {
+            throw new IllegalArgumentException("Tiles need at least one room per side: " + tileRooms);
+        }
+        this.tileGenerators = tileGenerators;
+        this.tileRooms = tileRooms;
+    }
+    
+    public Supplier<MazeGenerator> getTileGenerators() {
+        return tileGenerators;
+    }
+    
+    public int getTileRooms() {
+        return tileRooms;
+    }
+    
+    @Override
+    void carve(RoomGrid rooms, RandomGenerator random) {
+        int roomRows = rooms.getRoomRows();
+        int roomCols = rooms.getRoomCols();
+        int tileRows = (roomRows + tileRooms - 1) / tileRooms;
+        int tileCols = (roomCols + tileRooms - 1) / tileRooms;
+        
+        RandomGenerator.SplittableGenerator source = random instanceof RandomGenerator.SplittableGenerator
+            ? (RandomGenerator.SplittableGenerator) random
+            : new SplittableRandom(random.nextLong());
+        RandomGenerator[] streams = new RandomGenerator[tileRows * tileCols];
+        for (int tile = 0; tile < streams.length; tile++) {
+            streams[tile] = source.split();
+        }
+        
+        IntStream.range(0, streams.length).parallel().forEach(tile -> {
+            int firstRoomRow = tile / tileCols * tileRooms;
+            int firstRoomCol = tile % tileCols * tileRooms;
+            MazeTile region = new MazeTile(rooms, firstRoomRow, firstRoomCol,
+                Math.min(tileRooms, roomRows - firstRoomRow), Math.min(tileRooms, roomCols - firstRoomCol));
+            nextTileGenerator().carve(region, streams[tile]);
+        });
+        
+        stitchTiles(rooms, random, tileRows, tileCols);
+    }
+    
+    private void stitchTiles(RoomGrid rooms, RandomGenerator random, int tileRows, int tileCols) {
+        int tileCount = tileRows * tileCols;
+        int[] edges = new int[tileCount * 2];
+        int edgeCount = 0;
+        for (int tile = 0; tile < tileCount; tile++) {
+            if (tile % tileCols < tileCols - 1) edges[edgeCount++] = tile * 2;
+            if (tile / tileCols < tileRows - 1) edges[edgeCount++] = tile * 2 + 1;
+        }
+        
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = tmp;
+        }
+        
+        int[] parent = new int[tileCount];
+        for (int tile = 0; tile < tileCount; tile++) {
+            parent[tile] = tile;
+        }
+        
+        int roomRows = rooms.getRoomRows();
+        int roomCols = rooms.getRoomCols();
+        for (int i = 0; i < edgeCount; i++) {
+            int tile = edges[i] >>> 1;
+            boolean horizontal = (edges[i] & 1) == 0;
+            int a = find(parent, tile);
+            int b = find(parent, horizontal ? tile + 1 : tile + tileCols);
+            if (a == b) {
+                continue;
+            }
+            parent[b] = a;
+            
+            int firstRoomRow = tile / tileCols * tileRooms;
+            int firstRoomCol = tile % tileCols * tileRooms;
+            if (horizontal) {
+                int row = firstRoomRow + random.nextInt(Math.min(tileRooms, roomRows - firstRoomRow));
+                int col = firstRoomCol + tileRooms - 1;
+                rooms.carvePassage(row, col, row, col + 1);
+            } else {
+                int row = firstRoomRow + tileRooms - 1;
+                int col = firstRoomCol + random.nextInt(Math.min(tileRooms, roomCols - firstRoomCol));
+                rooms.carvePassage(row, col, row + 1, col);
+            }
+        }
+    }
+    
+    private RoomGenerator nextTileGenerator() {
+        MazeGenerator generator = tileGenerators.get();
+        if (!(generator instanceof RoomGenerator)) {
+            throw new IllegalArgumentException("Tiles can only be carved by the room generators of this package, not "
+                + generator.getClass().getName());
+        }
+        return (RoomGenerator) generator;
+    }
+    
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
+
+class MazeTile implements RoomGrid {
+    private final RoomGrid rooms;
+    private final int firstRoomRow;
+    private final int firstRoomCol;
+    private final int roomRows;
+    private final int roomCols;
+    
+    MazeTile(RoomGrid rooms, int firstRoomRow, int firstRoomCol, int roomRows, int roomCols) {
+        this.rooms = rooms;
+        this.firstRoomRow = firstRoomRow;
+        this.firstRoomCol = firstRoomCol;
+        this.roomRows = roomRows;
+        this.roomCols = roomCols;
+    }
+    
+    @Override
+    public int getRoomRows() {
+        return roomRows;
+    }
+    
+    @Override
+    public int getRoomCols() {
+        return roomCols;
+    }
+    
+    @Override
+    public void carveRoom(int roomRow, int roomCol) {
+        rooms.carveRoom(firstRoomRow + roomRow, firstRoomCol + roomCol);
+    }
+    
+    @Override
+    public void carvePassage(int roomRow, int roomCol, int otherRow, int otherCol) {
+        rooms.carvePassage(firstRoomRow + roomRow, firstRoomCol + roomCol, firstRoomRow + otherRow, firstRoomCol + otherCol);
+    }
+}
@@ -0,0 +1,209 @@
+package org.codes_maze.view;
+
+import javafx.application.Platform;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import org.codes_maze.model.CellType;
+import org.codes_maze.model.Maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+public class MazeRasterizer {
+    private static final int BAND_ROWS = 64;
+    private static final int BACKGROUND = 0xFF000000;
+    private static final byte HIDDEN_TILE = (byte) CellType.values().length;
+    
+    private final int gridColor;
+    private final ImageView view = new ImageView();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "maze-rasterizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int[][] buffers = new int[2][];
+    private int back;
+    private boolean rendering;
+    private Frame pending;
+    private WritableImage image;
+    
+    public MazeRasterizer(Color gridColor) {
+        this.gridColor = toArgb(gridColor);
+        view.setMouseTransparent(true);
+    }
+    
+    public ImageView getView() {
+        return view;
+    }
+    
+    public int request(Maze maze, boolean torchActive, int viewX, int viewY, int width, int height,
+                       int cellSize, int[][] tiles) {
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        
+        Frame frame = capture(maze, torchActive, viewX, viewY, width, height, cellSize, tiles);
+        if (rendering) {
+            pending = frame;
+        } else {
+            start(frame);
+        }
+        return frame.cells.length;
+    }
+    
+    Frame capture(Maze maze, boolean torchActive, int viewX, int viewY, int width, int height,
+                  int cellSize, int[][] tiles) {
+        int firstRow = Math.max(0, Math.min(maze.getRows() - 1, Math.floorDiv(viewY, cellSize)));
+        int lastRow = Math.min(maze.getRows() - 1, Math.floorDiv(viewY + height - 1, cellSize));
+        int firstCol = Math.max(0, Math.min(maze.getCols() - 1, Math.floorDiv(viewX, cellSize)));
+        int lastCol = Math.min(maze.getCols() - 1, Math.floorDiv(viewX + width - 1, cellSize));
+        int windowRows = Math.max(0, lastRow - firstRow + 1);
+        int windowCols = Math.max(0, lastCol - firstCol + 1);
+        
+        byte[] cells = new byte[windowRows * windowCols];
+        for (int row = 0, i = 0; row < windowRows; row++) {
+            for (int col = 0; col < windowCols; col++, i++) {
+                if (torchActive || maze.isRevealed(firstRow + row, firstCol + col)) {
+                    cells[i] = (byte) maze.getCellType(firstRow + row, firstCol + col).ordinal();
+                } else {
+                    cells[i] = HIDDEN_TILE;
+                }
+            }
+        }
+        
+        return new Frame(viewX, viewY, width, height, cellSize, tiles, gridColor,
+            maze.getRows() * cellSize, firstRow, firstCol, windowRows, windowCols, cells);
+    }
+    
+    private void start(Frame frame) {
+        rendering = true;
+        pending = null;
+        int index = back;
+        back ^= 1;
+        worker.execute(() -> {
+            int[] pixels = buffers[index];
+            if (pixels == null || pixels.length < frame.width * frame.height) {
+                pixels = new int[frame.width * frame.height];
+                buffers[index] = pixels;
+            }
+            rasterize(frame, pixels);
+            int[] rendered = pixels;
+            Platform.runLater(() -> present(frame, rendered));
+        });
+    }
+    
+    private void present(Frame frame, int[] pixels) {
+        rendering = false;
+        if (pending != null) {
+            start(pending);
+        }
+        
+        if (image == null || image.getWidth() != frame.width || image.getHeight() != frame.height) {
+            image = new WritableImage(frame.width, frame.height);
+            view.setImage(image);
+        }
+        image.getPixelWriter().setPixels(0, 0, frame.width, frame.height,
+            PixelFormat.getIntArgbPreInstance(), pixels, 0, frame.width);
+    }
+    
+    static void rasterize(Frame frame, int[] pixels) {
+        int bands = (frame.height + BAND_ROWS - 1) / BAND_ROWS;
+        IntStream.range(0, bands).parallel().forEach(band ->
+            rasterizeBand(frame, pixels, band * BAND_ROWS, Math.min(frame.height, (band + 1) * BAND_ROWS)));
+    }
+    
+    private static void rasterizeBand(Frame frame, int[] pixels, int firstY, int endY) {
+        int width = frame.width;
+        int cellSize = frame.cellSize;
+        int tileSize = cellSize - 1;
+        int endCol = frame.firstCol + frame.windowCols;
+        int gridLeft = Math.max(0, frame.firstCol * cellSize - frame.viewX);
+        int gridRight = Math.min(width, endCol * cellSize - frame.viewX + 1);
+        
+        for (int y = firstY; y < endY; y++) {
+            int offset = y * width;
+            Arrays.fill(pixels, offset, offset + width, BACKGROUND);
+            
+            int worldY = y + frame.viewY;
+            if (worldY < 0 || worldY > frame.boardHeight || frame.windowCols == 0) {
+                continue;
+            }
+            int row = worldY / cellSize;
+            int tileY = worldY - row * cellSize - 1;
+            if (tileY < 0) {
+                if (gridLeft < gridRight) {
+                    Arrays.fill(pixels, offset + gridLeft, offset + gridRight, frame.gridColor);
+                }
+                continue;
+            }
+            
+            int windowRow = row - frame.firstRow;
+            if (windowRow < 0 || windowRow >= frame.windowRows) {
+                continue;
+            }
+            int cellIndex = windowRow * frame.windowCols;
+            int tileOffset = tileY * tileSize;
+            for (int col = frame.firstCol; col < endCol; col++, cellIndex++) {
+                int x = col * cellSize - frame.viewX;
+                if (x >= 0) {
+                    pixels[offset + x] = frame.gridColor;
+                }
+                int from = Math.max(x + 1, 0);
+                int to = Math.min(x + cellSize, width);
+                if (from < to) {
+                    System.arraycopy(frame.tiles[frame.cells[cellIndex]], tileOffset + from - x - 1,
+                        pixels, offset + from, to - from);
+                }
+            }
+            int closingX = endCol * cellSize - frame.viewX;
+            if (closingX >= 0 && closingX < width) {
+                pixels[offset + closingX] = frame.gridColor;
+            }
+        }
+    }
+    
+    private static int toArgb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+            | (int) Math.round(color.getRed() * 255) << 16
+            | (int) Math.round(color.getGreen() * 255) << 8
+            | (int) Math.round(color.getBlue() * 255);
+    }
+    
+    static final class Frame {
+        final int viewX;
+        final int viewY;
+        final int width;
+        final int height;
+        final int cellSize;
+        final int[][] tiles;
+        final int gridColor;
+        final int boardHeight;
+        final int firstRow;
+        final int firstCol;
+        final int windowRows;
+        final int windowCols;
+        final byte[] cells;
+        
+        Frame(int viewX, int viewY, int width, int height, int cellSize, int[][] tiles, int gridColor,
+              int boardHeight, int firstRow, int firstCol, int windowRows, int windowCols, byte[] cells) {
+            this.viewX = viewX;
+            this.viewY = viewY;
+            this.width = width;
+            this.height = height;
+            this.cellSize = cellSize;
+            this.tiles = tiles;
+            this.gridColor = gridColor;
+            this.boardHeight = boardHeight;
+            this.firstRow = firstRow;
+            this.firstCol = firstCol;
+            this.windowRows = windowRows;
+            this.windowCols = windowCols;
+            this.cells = cells;
+        }
+    }
+}
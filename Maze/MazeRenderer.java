@@ -0,0 +1,95 @@
+package org.codes_maze.view;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import org.codes_maze.model.Maze;
+
+public class MazeRenderer {
+    private static final int VIEW_MARGIN = 1;
+    
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final TileCache tileCache;
+    private final Color gridColor;
+    private int viewX;
+    private int viewY;
+    private int zoomIndex;
+    private int cellSize;
+    private boolean torchActive;
+    
+    public MazeRenderer(Canvas canvas, TileCache tileCache, Color gridColor) {
+        this.canvas = canvas;
+        this.gc = canvas.getGraphicsContext2D();
+        this.tileCache = tileCache;
+        this.gridColor = gridColor;
+        gc.setImageSmoothing(false);
+    }
+    
+    public void setView(int viewX, int viewY, int zoomIndex, int cellSize, boolean torchActive) {
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.zoomIndex = zoomIndex;
+        this.cellSize = cellSize;
+        this.torchActive = torchActive;
+    }
+    
+    public boolean isInView(int row, int col) {
+        int x = col * cellSize - viewX;
+        int y = row * cellSize - viewY;
+        return x + cellSize >= 0 && x <= canvas.getWidth() && y + cellSize >= 0 && y <= canvas.getHeight();
+    }
+    
+    public int drawMaze(Maze maze) {
+        gc.setFill(Color.BLACK);
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        
+        int firstRow = Math.max(0, Math.floorDiv(viewY, cellSize) - VIEW_MARGIN);
+        int lastRow = Math.min(maze.getRows() - 1, (viewY + (int) canvas.getHeight()) / cellSize + VIEW_MARGIN);
+        int firstCol = Math.max(0, Math.floorDiv(viewX, cellSize) - VIEW_MARGIN);
+        int lastCol = Math.min(maze.getCols() - 1, (viewX + (int) canvas.getWidth()) / cellSize + VIEW_MARGIN);
+        
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                drawCell(maze, row, col);
+            }
+        }
+        
+        drawGrid(firstRow, lastRow, firstCol, lastCol);
+        return Math.max(0, lastRow - firstRow + 1) * Math.max(0, lastCol - firstCol + 1);
+    }
+    
+    public void drawCell(Maze maze, int row, int col) {
+        int x = col * cellSize - viewX;
+        int y = row * cellSize - viewY;
+        
+        Image tile;
+        if (torchActive || maze.isRevealed(row, col)) {
+            tile = tileCache.getTile(zoomIndex, maze.getCellType(row, col));
+        } else {
+            tile = tileCache.getHiddenTile(zoomIndex);
+        }
+        gc.drawImage(tile, x + 1, y + 1);
+    }
+    
+    private void drawGrid(int firstRow, int lastRow, int firstCol, int lastCol) {
+        gc.setStroke(gridColor);
+        gc.setLineWidth(1);
+        
+        double left = firstCol * cellSize - viewX;
+        double right = (lastCol + 1) * cellSize - viewX + 1;
+        double top = firstRow * cellSize - viewY;
+        double bottom = (lastRow + 1) * cellSize - viewY + 1;
+        
+        for (int row = firstRow; row <= lastRow + 1; row++) {
+            double y = row * cellSize - viewY + 0.5;
+            gc.strokeLine(left, y, right, y);
+        }
+        for (int col = firstCol; col <= lastCol + 1; col++) {
+            double x = col * cellSize - viewX + 0.5;
+            gc.strokeLine(x, top, x, bottom);
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package org.codes_maze.model;
+
+import java.util.Arrays;
+
+public class IntRingQueue {
+    private int[] items;
+    private int head;
+    private int size;
+    
+    public IntRingQueue(int capacity) {
+        items = new int[Math.max(1, Integer.highestOneBit(Math.max(1, capacity) - 1) << 1)];
+    }
+    
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public void add(int value) {
+        if (size == items.length) {
+            grow();
+        }
+        items[(head + size++) & (items.length - 1)] = value;
+    }
+    
+    public int poll() {
+        int value = items[head];
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return value;
+    }
+    
+    private void grow() {
+        int[] larger = new int[items.length * 2];
+        for (int i = 0; i < size; i++) {
+            larger[i] = items[(head + i) & (items.length - 1)];
+        }
+        items = larger;
+        head = 0;
+    }
+}
+
+public abstract class MazeSolver {
+    protected int rows;
+    protected int cols;
+    protected int[] parent = new int[0];
+    protected int[] visited = new int[0];
+    protected int searchId;
+    
+    private int[] path = new int[16];
+    private int pathLength;
+    
+    public boolean solve(Maze maze) {
+        Position exit = maze.getExitPosition();
+        if (maze.getPlayerRow() < 0 || exit == null) {
+            pathLength = 0;
+            return false;
+        }
+        return solve(maze, maze.getPlayerRow(), maze.getPlayerCol(), exit.getRow(), exit.getCol());
+    }
+    
+    public boolean isExitReachable(Maze maze) {
+        return solve(maze);
+    }
+    
+    public abstract boolean solve(Maze maze, int startRow, int startCol, int goalRow, int goalCol);
+    
+    public int getPathLength() {
+        return pathLength;
+    }
+    
+    public int getPathRow(int step) {
+        return path[step] / cols;
+    }
+    
+    public int getPathCol(int step) {
+        return path[step] % cols;
+    }
+    
+    public Direction getFirstStep() {
+        if (pathLength < 2) {
+            return null;
+        }
+        int from = path[0];
+        int to = path[1];
+        if (to == from - cols) return Direction.UP;
+        if (to == from + cols) return Direction.DOWN;
+        if (to == from - 1) return Direction.LEFT;
+        return Direction.RIGHT;
+    }
+    
+    protected void prepare(Maze maze) {
+        rows = maze.getRows();
+        cols = maze.getCols();
+        pathLength = 0;
+        
+        int cellCount = Math.multiplyExact(rows, cols);
+        if (visited.length < cellCount) {
+            visited = new int[cellCount];
+            parent = new int[cellCount];
+            searchId = 0;
+            onResize(cellCount);
+        }
+        
+        if (++searchId == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            searchId = 1;
+        }
+    }
+    
+    protected void onResize(int cellCount) {
+    }
+    
+    protected void clearPath() {
+        pathLength = 0;
+    }
+    
+    protected void buildPath(int goal, int length) {
+        if (path.length < length) {
+            path = new int[Math.max(length, path.length * 2)];
+        }
+        pathLength = length;
+        
+        int index = length - 1;
+        int node = goal;
+        while (node >= 0) {
+            int previous = parent[node];
+            if (previous < 0) {
+                path[index--] = node;
+                break;
+            }
+            int step = previous / cols == node / cols ? (previous < node ? -1 : 1) : (previous < node ? -cols : cols);
+            for (int cell = node; cell != previous; cell += step) {
+                path[index--] = cell;
+            }
+            node = previous;
+        }
+    }
+}
+
+public class BreadthFirstSolver extends MazeSolver {
+    private final IntRingQueue queue = new IntRingQueue(1024);
+    private int[] distances = new int[0];
+    
+    @Override
+    public boolean solve(Maze maze, int startRow, int startCol, int goalRow, int goalCol) {
+        prepare(maze);
+        int start = startRow * cols + startCol;
+        int goal = goalRow * cols + goalCol;
+        
+        int id = searchId;
+        queue.clear();
+        queue.add(start);
+        visited[start] = id;
+        parent[start] = -1;
+        distances[start] = 0;
+        
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            if (node == goal) {
+                buildPath(goal, distances[goal] + 1);
+                return true;
+            }
+            expand(maze, node, id);
+        }
+        return false;
+    }
+    
+    public int[] computeDistances(Maze maze, int row, int col) {
+        prepare(maze);
+        int source = row * cols + col;
+        Arrays.fill(distances, 0, rows * cols, -1);
+        
+        int id = searchId;
+        queue.clear();
+        queue.add(source);
+        visited[source] = id;
+        parent[source] = -1;
+        distances[source] = 0;
+        
+        while (!queue.isEmpty()) {
+            expand(maze, queue.poll(), id);
+        }
+        return distances;
+    }
+    
+    public int countReachable(Maze maze, int row, int col) {
+        int[] field = computeDistances(maze, row, col);
+        int count = 0;
+        for (int i = 0; i < rows * cols; i++) {
+            if (field[i] >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    @Override
+    protected void onResize(int cellCount) {
+        distances = new int[cellCount];
+    }
+    
+    private void expand(Maze maze, int node, int id) {
+        int row = node / cols;
+        int col = node - row * cols;
+        int distance = distances[node] + 1;
+        
+        if (row > 0) visit(maze, node - cols, node, distance, id);
+        if (row < rows - 1) visit(maze, node + cols, node, distance, id);
+        if (col > 0) visit(maze, node - 1, node, distance, id);
+        if (col < cols - 1) visit(maze, node + 1, node, distance, id);
+    }
+    
+    private void visit(Maze maze, int next, int from, int distance, int id) {
+        if (visited[next] != id && maze.isPassable(next)) {
+            visited[next] = id;
+            parent[next] = from;
+            distances[next] = distance;
+            queue.add(next);
+        }
+    }
+}
+
+public class AStarSolver extends MazeSolver {
+    protected int[] costs = new int[0];
+    protected int[] closed = new int[0];
+    private long[] heap = new long[1024];
+    private int heapSize;
+    protected int goalRow;
+    protected int goalCol;
+    
+    @Override
+    public boolean solve(Maze maze, int startRow, int startCol, int goalRow, int goalCol) {
+        prepare(maze);
+        this.goalRow = goalRow;
+        this.goalCol = goalCol;
+        int start = startRow * cols + startCol;
+        int goal = goalRow * cols + goalCol;
+        
+        int id = searchId;
+        heapSize = 0;
+        visited[start] = id;
+        parent[start] = -1;
+        costs[start] = 0;
+        push(heuristic(startRow, startCol), start);
+        
+        while (heapSize > 0) {
+            int node = pop();
+            if (closed[node] == id) {
+                continue;
+            }
+            closed[node] = id;
+            
+            if (node == goal) {
+                buildPath(goal, costs[goal] + 1);
+                return true;
+            }
+            expand(maze, node, id);
+        }
+        return false;
+    }
+    
+    protected void expand(Maze maze, int node, int id) {
+        int row = node / cols;
+        int col = node - row * cols;
+        
+        if (row > 0) relax(maze, node - cols, node, 1, id);
+        if (row < rows - 1) relax(maze, node + cols, node, 1, id);
+        if (col > 0) relax(maze, node - 1, node, 1, id);
+        if (col < cols - 1) relax(maze, node + 1, node, 1, id);
+    }
+    
+    protected void relax(Maze maze, int next, int from, int stepCost, int id) {
+        if (closed[next] == id || !maze.isPassable(next)) {
+            return;
+        }
+        int cost = costs[from] + stepCost;
+        if (visited[next] != id || cost < costs[next]) {
+            visited[next] = id;
+            parent[next] = from;
+            costs[next] = cost;
+            int row = next / cols;
+            push(cost + heuristic(row, next - row * cols), next);
+        }
+    }
+    
+    protected int heuristic(int row, int col) {
+        return Math.abs(row - goalRow) + Math.abs(col - goalCol);
+    }
+    
+    @Override
+    protected void onResize(int cellCount) {
+        costs = new int[cellCount];
+        closed = new int[cellCount];
+    }
+    
+    @Override
+    protected void prepare(Maze maze) {
+        super.prepare(maze);
+        if (searchId == 1) {
+            Arrays.fill(closed, 0);
+        }
+    }
+    
+    private void push(int priority, int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        long entry = ((long) priority << 32) | node;
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+    }
+    
+    private int pop() {
+        int node = (int) heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return node;
+    }
+}
+
+public class JumpPointSolver extends AStarSolver {
+    private Maze maze;
+    private int goal;
+    
+    @Override
+    public boolean solve(Maze maze, int startRow, int startCol, int goalRow, int goalCol) {
+        this.maze = maze;
+        this.goal = goalRow * maze.getCols() + goalCol;
+        try {
+            return super.solve(maze, startRow, startCol, goalRow, goalCol);
+        } finally {
+            this.maze = null;
+        }
+    }
+    
+    @Override
+    protected void expand(Maze maze, int node, int id) {
+        int row = node / cols;
+        int col = node - row * cols;
+        int from = parent[node];
+        
+        if (from < 0) {
+            jumpFrom(node, row, col, -1, 0, id);
+            jumpFrom(node, row, col, 1, 0, id);
+            jumpFrom(node, row, col, 0, -1, id);
+            jumpFrom(node, row, col, 0, 1, id);
+            return;
+        }
+        
+        int fromRow = from / cols;
+        int dRow = Integer.signum(row - fromRow);
+        int dCol = Integer.signum(col - (from - fromRow * cols));
+        
+        if (dCol != 0) {
+            jumpFrom(node, row, col, -1, 0, id);
+            jumpFrom(node, row, col, 1, 0, id);
+            jumpFrom(node, row, col, 0, dCol, id);
+        } else {
+            jumpFrom(node, row, col, 0, -1, id);
+            jumpFrom(node, row, col, 0, 1, id);
+            jumpFrom(node, row, col, dRow, 0, id);
+        }
+    }
+    
+    private void jumpFrom(int node, int row, int col, int dRow, int dCol, int id) {
+        int target = jump(row, col, dRow, dCol);
+        if (target >= 0) {
+            int targetRow = target / cols;
+            int distance = Math.abs(targetRow - row) + Math.abs(target - targetRow * cols - col);
+            relax(maze, target, node, distance, id);
+        }
+    }
+    
+    private int jump(int row, int col, int dRow, int dCol) {
+        while (true) {
+            row += dRow;
+            col += dCol;
+            if (!isOpen(row, col)) {
+                return -1;
+            }
+            
+            int index = row * cols + col;
+            if (index == goal) {
+                return index;
+            }
+            
+            if (dCol != 0) {
+                if ((isOpen(row - 1, col) && !isOpen(row - 1, col - dCol))
+                    || (isOpen(row + 1, col) && !isOpen(row + 1, col - dCol))) {
+                    return index;
+                }
+            } else {
+                if ((isOpen(row, col - 1) && !isOpen(row - dRow, col - 1))
+                    || (isOpen(row, col + 1) && !isOpen(row - dRow, col + 1))) {
+                    return index;
+                }
+                if (jump(row, col, 0, 1) >= 0 || jump(row, col, 0, -1) >= 0) {
+                    return index;
+                }
+            }
+        }
+    }
+    
+    private boolean isOpen(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols && maze.isPassable(row * cols + col);
+    }
+}
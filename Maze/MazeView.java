@@ -5,48 +5,92 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
+import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.animation.AnimationTimer;
 import javafx.beans.binding.Bindings;
 
 import org.codes_maze.controller.MazeController;
+import org.codes_maze.journal.MoveJournal;
+import org.codes_maze.metrics.GameMetrics;
 import org.codes_maze.model.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+
 public class MazeView extends Application {
-    private static final int CELL_SIZE = 40;
+    private static final int[] ZOOM_LEVELS = {6, 8, 12, 16, 24, 32, 40, 56};
+    private static final int DEFAULT_ZOOM = 6;
+    private static final double CAMERA_SPEED = 10.0;
+    private static final long STEP_NANOS = 1_000_000_000L / 60;
+    private static final double STEP_SECONDS = STEP_NANOS / 1_000_000_000.0;
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
     private static final long TORCH_DURATION = 3000;
+    private static final Color GRID_COLOR = Color.GRAY;
+    private static final String JOURNAL_PATH = System.getProperty("maze.journal");
     
     private MazeController controller;
+    private MoveJournal journal;
+    private Stage stage;
     
     private Canvas mazeCanvas;
-    private GraphicsContext gc;
     private Label statusLabel;
     private Label timerLabel;
     private Label torchesLabel;
+    private Label metricsLabel;
     private Slider rowsSlider;
     private Slider colsSlider;
     private Slider wallRatioSlider;
     private Slider torchRatioSlider;
+    private TextField seedField;
     
     private boolean torchActive = false;
     private long torchStartTime = 0;
     private AnimationTimer gameTimer;
     private long gameStartTime;
+    private boolean clockRunning;
+    private long shownSeconds;
+    private final ArrayDeque<KeyCode> pendingKeys = new ArrayDeque<>();
+    
+    private int zoomIndex = DEFAULT_ZOOM;
+    private int cellSize = ZOOM_LEVELS[DEFAULT_ZOOM];
+    private double cameraX;
+    private double cameraY;
+    private int viewX;
+    private int viewY;
+    private boolean viewInvalid = true;
+    private long lastPulse;
+    private long lagNanos;
+    private long frameDrawNanos;
+    private int frameCellsDrawn;
+    
+    private final TileCache tileCache = new TileCache(ZOOM_LEVELS);
+    private final MazeRasterizer rasterizer = new MazeRasterizer(GRID_COLOR);
+    private MazeRenderer renderer;
+    private boolean rasterMode;
     
     @Override
-    public void start(Stage primaryStage) {
+    public void start(Stage primaryStage) throws IOException {
         controller = new MazeController();
+        if (JOURNAL_PATH != null) {
+            journal = new MoveJournal(Paths.get(JOURNAL_PATH));
+            controller.setRecorder(journal);
+        }
+        stage = primaryStage;
         
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(10));
@@ -54,7 +98,7 @@ public class MazeView extends Application {
         VBox configPanel = createConfigPanel();
         root.setLeft(configPanel);
         
-        statusLabel = new Label("Utilisez les flèches pour vous déplacer et T pour utiliser une torche");
+        statusLabel = new Label("Utilisez les flèches pour vous déplacer, T pour utiliser une torche et H pour un indice");
         statusLabel.setFont(Font.font(14));
         torchesLabel = new Label("Torches: 1");
         timerLabel = new Label("Temps: 0s");
@@ -65,14 +109,27 @@ public class MazeView extends Application {
         root.setTop(infoPanel);
         
         mazeCanvas = new Canvas();
-        gc = mazeCanvas.getGraphicsContext2D();
-        root.setCenter(mazeCanvas);
+        renderer = new MazeRenderer(mazeCanvas, tileCache, GRID_COLOR);
+        metricsLabel = new Label();
+        metricsLabel.setStyle("-fx-background-color: rgba(0, 0, 0, 0.6); -fx-text-fill: white; -fx-font-family: monospace; -fx-padding: 4;");
+        metricsLabel.relocate(8, 8);
+        metricsLabel.setMouseTransparent(true);
+        metricsLabel.setVisible(false);
+        rasterizer.getView().setVisible(false);
+        Pane viewport = new Pane(mazeCanvas, rasterizer.getView(), metricsLabel);
+        viewport.setMinSize(0, 0);
+        mazeCanvas.widthProperty().bind(viewport.widthProperty());
+        mazeCanvas.heightProperty().bind(viewport.heightProperty());
+        mazeCanvas.widthProperty().addListener((obs, oldVal, newVal) -> viewInvalid = true);
+        mazeCanvas.heightProperty().addListener((obs, oldVal, newVal) -> viewInvalid = true);
+        viewport.setOnScroll(e -> zoom(e.getDeltaY() > 0 ? 1 : -1));
+        root.setCenter(viewport);
         
         HBox controlPanel = createControlPanel();
         root.setBottom(controlPanel);
         
         Scene scene = new Scene(root, 800, 600);
-        scene.setOnKeyPressed(e -> handleKeyPress(e.getCode()));
+        scene.setOnKeyPressed(e -> pendingKeys.add(e.getCode()));
         
         primaryStage.setTitle("Maze Game");
         primaryStage.setScene(scene);
@@ -81,6 +138,13 @@ public class MazeView extends Application {
         startNewGame();
     }
     
+    @Override
+    public void stop() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+    
     private VBox createConfigPanel() {
         VBox panel = new VBox(10);
         panel.setPadding(new Insets(10));
@@ -90,22 +154,20 @@ public class MazeView extends Application {
         titleLabel.setFont(Font.font(16));
         
         Label rowsLabel = new Label("Lignes: 10");
-        rowsSlider = new Slider(5, 20, 10);
+        rowsSlider = new Slider(5, 5000, 10);
         rowsSlider.setShowTickMarks(true);
-        rowsSlider.setShowTickLabels(true);
-        rowsSlider.setMajorTickUnit(5);
-        rowsSlider.setMinorTickCount(4);
-        rowsSlider.setSnapToTicks(true);
+        rowsSlider.setMajorTickUnit(1000);
+        rowsSlider.setMinorTickCount(0);
+        rowsSlider.setBlockIncrement(5);
         rowsSlider.valueProperty().addListener((obs, oldVal, newVal) -> 
             rowsLabel.setText("Lignes: " + newVal.intValue()));
         
         Label colsLabel = new Label("Colonnes: 10");
-        colsSlider = new Slider(5, 20, 10);
+        colsSlider = new Slider(5, 5000, 10);
         colsSlider.setShowTickMarks(true);
-        colsSlider.setShowTickLabels(true);
-        colsSlider.setMajorTickUnit(5);
-        colsSlider.setMinorTickCount(4);
-        colsSlider.setSnapToTicks(true);
+        colsSlider.setMajorTickUnit(1000);
+        colsSlider.setMinorTickCount(0);
+        colsSlider.setBlockIncrement(5);
         colsSlider.valueProperty().addListener((obs, oldVal, newVal) -> 
             colsLabel.setText("Colonnes: " + newVal.intValue()));
         
@@ -127,12 +189,17 @@ public class MazeView extends Application {
         torchRatioSlider.valueProperty().addListener((obs, oldVal, newVal) -> 
             torchRatioLabel.setText("Torches: " + newVal.intValue() + "%"));
         
+        Label seedLabel = new Label("Graine");
+        seedField = new TextField();
+        seedField.setPrefColumnCount(12);
+        
         panel.getChildren().addAll(
             titleLabel,
             rowsLabel, rowsSlider,
             colsLabel, colsSlider,
             wallRatioLabel, wallRatioSlider,
-            torchRatioLabel, torchRatioSlider
+            torchRatioLabel, torchRatioSlider,
+            seedLabel, seedField
         );
         
         return panel;
@@ -146,6 +213,12 @@ public class MazeView extends Application {
         Button newGameButton = new Button("Nouvelle partie");
         newGameButton.setOnAction(e -> startNewGame());
         
+        Button saveButton = new Button("Sauvegarder");
+        saveButton.setOnAction(e -> saveGame());
+        
+        Button loadButton = new Button("Charger");
+        loadButton.setOnAction(e -> loadGame());
+        
         Button quitButton = new Button("Quitter");
         quitButton.setOnAction(e -> {
             if (gameTimer != null) {
@@ -154,11 +227,36 @@ public class MazeView extends Application {
             System.exit(0);
         });
         
-        panel.getChildren().addAll(newGameButton, quitButton);
+        panel.getChildren().addAll(newGameButton, saveButton, loadButton, quitButton);
         return panel;
     }
     
-    private void handleKeyPress(KeyCode code) {
+    private void applyKey(KeyCode code) {
+        switch (code) {
+            case ADD:
+            case PLUS:
+            case EQUALS:
+                zoom(1);
+                return;
+            case SUBTRACT:
+            case MINUS:
+                zoom(-1);
+                return;
+            case F3:
+                metricsLabel.setVisible(!metricsLabel.isVisible());
+                metricsLabel.setText(GameMetrics.getReport());
+                return;
+            case F4:
+                rasterMode = !rasterMode;
+                mazeCanvas.setVisible(!rasterMode);
+                rasterizer.getView().setVisible(rasterMode);
+                viewInvalid = true;
+                statusLabel.setText(rasterMode ? "Rendu en arrière-plan activé" : "Rendu direct activé");
+                return;
+            default:
+                break;
+        }
+        
         if (controller.getGameState() != GameState.RUNNING) {
             return;
         }
@@ -181,6 +279,7 @@ public class MazeView extends Application {
             case T:
                 if (controller.getAvailableTorches() > 0) {
                     controller.useTorch();
+                    controller.getMaze().getDirtyCells().markAll();
                     torchActive = true;
                     torchStartTime = System.currentTimeMillis();
                     statusLabel.setText("Torche allumée !");
@@ -188,12 +287,18 @@ public class MazeView extends Application {
                     statusLabel.setText("Pas de torche disponible !");
                 }
                 break;
-            case Q:
-                if (gameTimer != null) {
-                    gameTimer.stop();
-                    statusLabel.setText("Partie terminée. Appuyez sur 'Nouvelle partie' pour recommencer.");
+            case H:
+                Direction hint = controller.getHint();
+                if (hint != null) {
+                    statusLabel.setText("Indice : " + directionLabel(hint));
+                } else {
+                    statusLabel.setText("Aucun chemin vers la sortie !");
                 }
                 break;
+            case Q:
+                clockRunning = false;
+                statusLabel.setText("Partie terminée. Appuyez sur 'Nouvelle partie' pour recommencer.");
+                break;
             default:
                 break;
         }
@@ -202,8 +307,19 @@ public class MazeView extends Application {
             updateLabels();
             checkGameState();
         }
-        
-        drawMaze();
+    }
+    
+    private String directionLabel(Direction direction) {
+        switch (direction) {
+            case UP:
+                return "en haut";
+            case DOWN:
+                return "en bas";
+            case LEFT:
+                return "à gauche";
+            default:
+                return "à droite";
+        }
     }
     
     private void startNewGame() {
@@ -212,46 +328,182 @@ public class MazeView extends Application {
         double wallRatio = wallRatioSlider.getValue() / 100.0;
         double torchRatio = torchRatioSlider.getValue() / 100.0;
         
-        controller.initializeGame(rows, cols, wallRatio, torchRatio);
+        String seedText = seedField.getText().trim();
+        if (seedText.isEmpty()) {
+            controller.initializeGame(rows, cols, wallRatio, torchRatio);
+        } else {
+            try {
+                controller.initializeGame(rows, cols, wallRatio, torchRatio, Long.parseLong(seedText));
+            } catch (NumberFormatException ex) {
+                statusLabel.setText("Graine invalide : " + seedText);
+                return;
+            }
+        }
+        seedField.setPromptText(Long.toString(controller.getSeed()));
+        showGame("Nouvelle partie ! Utilisez les flèches pour vous déplacer, T pour utiliser une torche et H pour un indice");
+    }
+    
+    private void saveGame() {
+        File file = createFileChooser().showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        if (!file.getName().endsWith(MazeFile.EXTENSION)) {
+            file = new File(file.getParentFile(), file.getName() + MazeFile.EXTENSION);
+        }
         
-        mazeCanvas.setWidth(cols * CELL_SIZE);
-        mazeCanvas.setHeight(rows * CELL_SIZE);
+        try {
+            controller.saveGame(file.toPath(), true);
+            statusLabel.setText("Partie sauvegardée dans " + file.getName());
+        } catch (IOException ex) {
+            statusLabel.setText("Erreur de sauvegarde : " + ex.getMessage());
+        }
+    }
+    
+    private void loadGame() {
+        File file = createFileChooser().showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
         
+        try {
+            controller.loadGame(file.toPath());
+        } catch (IOException ex) {
+            statusLabel.setText("Erreur de chargement : " + ex.getMessage());
+            return;
+        }
+        showGame("Partie chargée depuis " + file.getName());
+    }
+    
+    private FileChooser createFileChooser() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Labyrinthe");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Labyrinthes", "*" + MazeFile.EXTENSION));
+        return chooser;
+    }
+    
+    private void showGame(String status) {
         torchActive = false;
-        gameStartTime = System.currentTimeMillis();
-        
-        statusLabel.setText("Nouvelle partie ! Utilisez les flèches pour vous déplacer et T pour utiliser une torche");
+        pendingKeys.clear();
+        lastPulse = 0;
+        lagNanos = 0;
+        updateCamera(true);
+        viewInvalid = true;
+        gameStartTime = System.currentTimeMillis() - controller.getGameTime() * 1000;
+        clockRunning = controller.getGameState() == GameState.RUNNING;
+        shownSeconds = -1;
+        
+        statusLabel.setText(status);
         updateLabels();
+        updateTimerLabel();
+        
+        if (gameTimer == null) {
+            gameTimer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    if (!GameMetrics.ENABLED) {
+                        updateGame(now);
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    updateGame(now);
+                    GameMetrics.recordFrame(System.nanoTime() - start, frameDrawNanos, frameCellsDrawn);
+                    frameDrawNanos = 0;
+                    frameCellsDrawn = 0;
+                }
+            };
+            gameTimer.start();
+        }
+    }
+    
+    private void updateGame(long now) {
+        KeyCode code;
+        while ((code = pendingKeys.poll()) != null) {
+            applyKey(code);
+        }
         
-        if (gameTimer != null) {
-            gameTimer.stop();
+        lagNanos += lastPulse == 0 ? STEP_NANOS : Math.min(now - lastPulse, MAX_FRAME_NANOS);
+        lastPulse = now;
+        while (lagNanos >= STEP_NANOS) {
+            step();
+            lagNanos -= STEP_NANOS;
         }
         
-        gameTimer = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                updateGame();
-            }
-        };
-        gameTimer.start();
+        if (clockRunning) {
+            updateTimerLabel();
+        }
+        if (needsRender()) {
+            render();
+        }
         
-        drawMaze();
+        if (metricsLabel.isVisible()) {
+            String report = GameMetrics.getReport();
+            if (!report.equals(metricsLabel.getText())) {
+                metricsLabel.setText(report);
+            }
+        }
     }
     
-    private void updateGame() {
-        long elapsedTime = (System.currentTimeMillis() - gameStartTime) / 1000;
-        timerLabel.setText("Temps: " + elapsedTime + "s");
-        
+    private void step() {
         if (torchActive && (System.currentTimeMillis() - torchStartTime > TORCH_DURATION)) {
             torchActive = false;
             statusLabel.setText("La torche s'est éteinte.");
-            drawMaze();
+            controller.getMaze().getDirtyCells().markAll();
+        }
+        updateCamera(false, STEP_SECONDS);
+    }
+    
+    private void updateTimerLabel() {
+        long seconds = (System.currentTimeMillis() - gameStartTime) / 1000;
+        if (seconds != shownSeconds) {
+            shownSeconds = seconds;
+            timerLabel.setText("Temps: " + seconds + "s");
+        }
+    }
+    
+    private void updateCamera(boolean snap) {
+        updateCamera(snap, 0);
+    }
+    
+    private void updateCamera(boolean snap, double elapsed) {
+        Maze maze = controller.getMaze();
+        
+        double targetX = clampCamera((controller.getPlayerCol() + 0.5) * cellSize - mazeCanvas.getWidth() / 2,
+            maze.getCols() * cellSize + 1 - mazeCanvas.getWidth());
+        double targetY = clampCamera((controller.getPlayerRow() + 0.5) * cellSize - mazeCanvas.getHeight() / 2,
+            maze.getRows() * cellSize + 1 - mazeCanvas.getHeight());
+        
+        double t = snap ? 1.0 : Math.min(1.0, elapsed * CAMERA_SPEED);
+        cameraX += (targetX - cameraX) * t;
+        cameraY += (targetY - cameraY) * t;
+        if (Math.abs(targetX - cameraX) < 0.5) cameraX = targetX;
+        if (Math.abs(targetY - cameraY) < 0.5) cameraY = targetY;
+    }
+    
+    private double clampCamera(double value, double max) {
+        if (max <= 0) {
+            return max / 2;
         }
+        return Math.max(0, Math.min(max, value));
+    }
+    
+    private void zoom(int step) {
+        int newIndex = Math.max(0, Math.min(ZOOM_LEVELS.length - 1, zoomIndex + step));
+        if (newIndex == zoomIndex) {
+            return;
+        }
+        
+        double scale = (double) ZOOM_LEVELS[newIndex] / cellSize;
+        cameraX = (cameraX + mazeCanvas.getWidth() / 2) * scale - mazeCanvas.getWidth() / 2;
+        cameraY = (cameraY + mazeCanvas.getHeight() / 2) * scale - mazeCanvas.getHeight() / 2;
+        zoomIndex = newIndex;
+        cellSize = ZOOM_LEVELS[newIndex];
+        viewInvalid = true;
     }
     
     private void checkGameState() {
         if (controller.getGameState() == GameState.WON) {
-            gameTimer.stop();
+            clockRunning = false;
             long gameTime = (System.currentTimeMillis() - gameStartTime) / 1000;
             statusLabel.setText("Félicitations ! Vous avez gagné en " + gameTime + " secondes !");
         }
@@ -261,94 +513,54 @@ public class MazeView extends Application {
         torchesLabel.setText("Torches: " + controller.getAvailableTorches());
     }
     
-    private void drawMaze() {
-        Maze maze = controller.getMaze();
-        int rows = maze.getRows();
-        int cols = maze.getCols();
-        
-        gc.setFill(Color.BLACK);
-        gc.fillRect(0, 0, mazeCanvas.getWidth(), mazeCanvas.getHeight());
-        
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                Cell cell = maze.getCell(row, col);
-                
-                int x = col * CELL_SIZE;
-                int y = row * CELL_SIZE;
-                
-                boolean isVisible = cellIsVisible(cell, row, col);
-                
-                if (isVisible) {
-                    drawVisibleCell(cell, x, y);
-                } else {
-                    gc.setFill(Color.DARKGRAY);
-                    gc.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                    gc.setFill(Color.WHITE);
-                    gc.setFont(Font.font(CELL_SIZE * 0.6));
-                    gc.fillText("~", x + CELL_SIZE/2 - CELL_SIZE*0.15, y + CELL_SIZE/2 + CELL_SIZE*0.2);
-                }
-                
-                gc.setStroke(Color.GRAY);
-                gc.strokeRect(x, y, CELL_SIZE, CELL_SIZE);
-            }
-        }
+    private boolean needsRender() {
+        return viewInvalid || !controller.getMaze().getDirtyCells().isEmpty()
+            || (int) Math.round(cameraX) != viewX || (int) Math.round(cameraY) != viewY;
     }
     
-    private boolean cellIsVisible(Cell cell, int row, int col) {
-        if (cell.isRevealed()) {
-            return true;
-        }
-        
-        if (torchActive) {
-            return true;
+    private void render() {
+        if (!GameMetrics.ENABLED) {
+            draw();
+            return;
         }
-        
-        Position playerPos = controller.getPlayerPosition();
-        int distance = Math.abs(row - playerPos.getRow()) + Math.abs(col - playerPos.getCol());
-        return distance <= 1;
+        long start = System.nanoTime();
+        draw();
+        frameDrawNanos += System.nanoTime() - start;
     }
     
-    private void drawVisibleCell(Cell cell, int x, int y) {
-        CellType type = cell.getType();
-        
-        switch (type) {
-            case PLAYER:
-                gc.setFill(Color.BLUE);
-                gc.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                gc.setFill(Color.WHITE);
-                gc.setFont(Font.font(CELL_SIZE * 0.7));
-                gc.fillText("P", x + CELL_SIZE/2 - CELL_SIZE*0.2, y + CELL_SIZE/2 + CELL_SIZE*0.25);
-                break;
-                
-            case EXIT:
-                gc.setFill(Color.GREEN);
-                gc.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                gc.setFill(Color.BLACK);
-                gc.setFont(Font.font(CELL_SIZE * 0.7));
-                gc.fillText("E", x + CELL_SIZE/2 - CELL_SIZE*0.2, y + CELL_SIZE/2 + CELL_SIZE*0.25);
-                break;
-                
-            case WALL:
-                gc.setFill(Color.BROWN);
-                gc.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                gc.setFill(Color.WHITE);
-                gc.setFont(Font.font(CELL_SIZE * 0.7));
-                gc.fillText("W", x + CELL_SIZE/2 - CELL_SIZE*0.25, y + CELL_SIZE/2 + CELL_SIZE*0.25);
-                break;
-                
-            case TORCH:
-                gc.setFill(Color.ORANGE);
-                gc.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                gc.setFill(Color.BLACK);
-                gc.setFont(Font.font(CELL_SIZE * 0.7));
-                gc.fillText("T", x + CELL_SIZE/2 - CELL_SIZE*0.2, y + CELL_SIZE/2 + CELL_SIZE*0.25);
-                break;
-                
-            case EMPTY:
-                gc.setFill(Color.LIGHTGRAY);
-                gc.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                break;
+    private void draw() {
+        Maze maze = controller.getMaze();
+        DirtyCells dirtyCells = maze.getDirtyCells();
+        int newViewX = (int) Math.round(cameraX);
+        int newViewY = (int) Math.round(cameraY);
+        renderer.setView(newViewX, newViewY, zoomIndex, cellSize, torchActive);
+        
+        if (rasterMode) {
+            viewX = newViewX;
+            viewY = newViewY;
+            viewInvalid = false;
+            frameCellsDrawn += rasterizer.request(maze, torchActive, viewX, viewY,
+                (int) mazeCanvas.getWidth(), (int) mazeCanvas.getHeight(), cellSize, tileCache.getTilePixels(zoomIndex));
+        } else if (viewInvalid || dirtyCells.isAllDirty() || newViewX != viewX || newViewY != viewY) {
+            viewX = newViewX;
+            viewY = newViewY;
+            viewInvalid = false;
+            frameCellsDrawn += renderer.drawMaze(maze);
+        } else {
+            int cols = maze.getCols();
+            int firstRow = dirtyCells.getFirstRow();
+            for (int i = 0; i < dirtyCells.size(); i++) {
+                int index = dirtyCells.get(i);
+                int row = firstRow + index / cols;
+                int col = index % cols;
+                if (renderer.isInView(row, col)) {
+                    renderer.drawCell(maze, row, col);
+                    frameCellsDrawn++;
+                }
+            }
         }
+        
+        dirtyCells.clear();
     }
     
     public static void main(String[] args) {
@@ -0,0 +1,281 @@
+package org.codes_maze.metrics;
+
+import org.codes_maze.model.Direction;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class Histogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1);
+    private static final int MAX_EXPONENT = Long.SIZE - 1 - SUB_BUCKET_BITS;
+    private static final int BUCKETS = (MAX_EXPONENT + 2) * HALF_SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    
+    public void record(long value) {
+        counts.getAndIncrement(bucketOf(value));
+    }
+    
+    public Summary summarizeAndReset() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        double sum = 0;
+        int highest = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = counts.get(i) == 0 ? 0 : counts.getAndSet(i, 0);
+            if (bucketCount != 0) {
+                snapshot[i] = bucketCount;
+                count += bucketCount;
+                sum += (double) bucketCount * valueOf(i);
+                highest = i;
+            }
+        }
+        if (count == 0) {
+            return Summary.EMPTY;
+        }
+        return new Summary(count, sum / count,
+            percentile(snapshot, count, 0.50), percentile(snapshot, count, 0.99),
+            percentile(snapshot, count, 0.999), valueOf(highest));
+    }
+    
+    static int bucketOf(long value) {
+        if (value < 2 * HALF_SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return (exponent << (SUB_BUCKET_BITS - 1)) + (int) (value >>> exponent);
+    }
+    
+    static long valueOf(int bucket) {
+        if (bucket < 2 * HALF_SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket >> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = bucket - (exponent << (SUB_BUCKET_BITS - 1));
+        return (subBucket << exponent) + ((1L << exponent) >> 1);
+    }
+    
+    private static long percentile(long[] snapshot, long count, double fraction) {
+        long rank = Math.max(1, (long) Math.ceil(count * fraction));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return 0;
+    }
+    
+    public static final class Summary {
+        static final Summary EMPTY = new Summary(0, 0, 0, 0, 0, 0);
+        
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+        private final long max;
+        
+        Summary(long count, double mean, long p50, long p99, long p999, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public double getMean() {
+            return mean;
+        }
+        
+        public long getP50() {
+            return p50;
+        }
+        
+        public long getP99() {
+            return p99;
+        }
+        
+        public long getP999() {
+            return p999;
+        }
+        
+        public long getMax() {
+            return max;
+        }
+    }
+}
+
+@Name("org.codes_maze.Frame")
+@Label("Maze Frame")
+@Category("Maze")
+@StackTrace(false)
+public class FrameEvent extends Event {
+    @Label("Frame Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long frameTime;
+    
+    @Label("Draw Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long drawTime;
+    
+    @Label("Cells Drawn")
+    int cellsDrawn;
+}
+
+@Name("org.codes_maze.Move")
+@Label("Maze Move")
+@Category("Maze")
+@StackTrace(false)
+public class MoveEvent extends Event {
+    @Label("Direction")
+    String direction;
+    
+    @Label("Accepted")
+    boolean accepted;
+    
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
+
+public final class GameMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("maze.metrics");
+    
+    private static final String DUMP_PATH = System.getProperty("maze.metrics.dump");
+    private static final long INTERVAL_MILLIS = 1000;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    
+    private static final Histogram FRAME_TIME = new Histogram();
+    private static final Histogram DRAW_TIME = new Histogram();
+    private static final Histogram CELLS_DRAWN = new Histogram();
+    private static final Histogram MOVE_LATENCY = new Histogram();
+    private static final Histogram[] HISTOGRAMS = {FRAME_TIME, DRAW_TIME, CELLS_DRAWN, MOVE_LATENCY};
+    private static final String[] NAMES = {"frame_ns", "draw_ns", "cells_drawn", "move_ns"};
+    
+    private static volatile String report = "Métriques : en attente de la première mesure";
+    private static BufferedWriter dump;
+    
+    static {
+        if (ENABLED) {
+            start();
+        }
+    }
+    
+    private GameMetrics() {
+    }
+    
+    public static void recordFrame(long frameNanos, long drawNanos, int cellsDrawn) {
+        FRAME_TIME.record(frameNanos);
+        DRAW_TIME.record(drawNanos);
+        CELLS_DRAWN.record(cellsDrawn);
+        
+        FrameEvent event = new FrameEvent();
+        if (event.shouldCommit()) {
+            event.frameTime = frameNanos;
+            event.drawTime = drawNanos;
+            event.cellsDrawn = cellsDrawn;
+            event.commit();
+        }
+    }
+    
+    public static void recordMove(Direction direction, boolean accepted, long latencyNanos) {
+        MOVE_LATENCY.record(latencyNanos);
+        
+        MoveEvent event = new MoveEvent();
+        if (event.shouldCommit()) {
+            event.direction = direction.name();
+            event.accepted = accepted;
+            event.latency = latencyNanos;
+            event.commit();
+        }
+    }
+    
+    public static String getReport() {
+        return ENABLED ? report : "Métriques désactivées, relancez avec -Dmaze.metrics=true";
+    }
+    
+    private static void start() {
+        if (DUMP_PATH != null) {
+            try {
+                dump = Files.newBufferedWriter(Paths.get(DUMP_PATH), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                dump.write("time_ms,metric,count,mean,p50,p99,p999,max");
+                dump.newLine();
+            } catch (IOException e) {
+                System.err.println("Impossible d'ouvrir le fichier de métriques : " + e.getMessage());
+                dump = null;
+            }
+        }
+        
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "maze-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(GameMetrics::sample, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    private static void sample() {
+        Histogram.Summary[] summaries = new Histogram.Summary[HISTOGRAMS.length];
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            summaries[i] = HISTOGRAMS[i].summarizeAndReset();
+        }
+        
+        Histogram.Summary frames = summaries[0];
+        Histogram.Summary draws = summaries[1];
+        Histogram.Summary cells = summaries[2];
+        Histogram.Summary moves = summaries[3];
+        report = String.format(Locale.FRANCE,
+            "Images : %d/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n"
+                + "Dessin : p50 %.2f ms, p99 %.2f ms%n"
+                + "Cellules : p50 %d, p99 %d par image%n"
+                + "Déplacements : %d, p50 %.1f µs, p99 %.1f µs",
+            frames.getCount(), frames.getP50() / NANOS_PER_MILLI, frames.getP99() / NANOS_PER_MILLI,
+            frames.getMax() / NANOS_PER_MILLI, draws.getP50() / NANOS_PER_MILLI, draws.getP99() / NANOS_PER_MILLI,
+            cells.getP50(), cells.getP99(), moves.getCount(), moves.getP50() / 1000.0, moves.getP99() / 1000.0);
+        
+        if (dump != null) {
+            writeDump(summaries);
+        }
+    }
+    
+    private static void writeDump(Histogram.Summary[] summaries) {
+        long now = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < summaries.length; i++) {
+                Histogram.Summary summary = summaries[i];
+                dump.write(String.format(Locale.ROOT, "%d,%s,%d,%.1f,%d,%d,%d,%d", now, NAMES[i], summary.getCount(),
+                    summary.getMean(), summary.getP50(), summary.getP99(), summary.getP999(), summary.getMax()));
+                dump.newLine();
+            }
+            dump.flush();
+        } catch (IOException e) {
+            System.err.println("Impossible d'écrire les métriques : " + e.getMessage());
+            dump = null;
+        }
+    }
+}
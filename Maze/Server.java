@@ -0,0 +1,651 @@
+package org.codes_maze.server;
+
+import org.codes_maze.controller.MazeController;
+import org.codes_maze.journal.MoveJournal;
+import org.codes_maze.model.*;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class Protocol {
+    public static final byte NEW_GAME = 0x01;
+    public static final byte MOVE = 0x10;
+    public static final byte TORCH = 0x20;
+    
+    public static final byte BOARD = (byte) 0x81;
+    public static final byte UPDATE = (byte) 0x82;
+    
+    public static final int NEW_GAME_SIZE = 19;
+    public static final int BOARD_SIZE = 17;
+    public static final int UPDATE_HEADER_SIZE = 19;
+    public static final int CELL_SIZE = 5;
+    public static final int MAX_CELLS = 1 << 20;
+    
+    private Protocol() {
+    }
+}
+
+class GameSession {
+    private static final int INPUT_SIZE = 4096;
+    private static final int OUTPUT_LIMIT = 1 << 16;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    private final SocketChannel channel;
+    private final AtomicLong commands;
+    private final Path journalPath;
+    private final ByteBuffer in = ByteBuffer.allocate(INPUT_SIZE);
+    private ByteBuffer out = ByteBuffer.allocate(INPUT_SIZE);
+    private MazeController controller;
+    private MoveJournal journal;
+    
+    GameSession(SocketChannel channel, AtomicLong commands, Path journalPath) {
+        this.channel = channel;
+        this.commands = commands;
+        this.journalPath = journalPath;
+    }
+    
+    void handle(SelectionKey key) throws IOException {
+        if (key.isReadable() && channel.read(in) < 0) {
+            throw new EOFException();
+        }
+        
+        in.flip();
+        try {
+            if (flush()) {
+                boolean more;
+                do {
+                    more = handleCommands();
+                } while (flush() && more);
+            }
+        } finally {
+            in.compact();
+        }
+        key.interestOps(out.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+    
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+    
+    private boolean handleCommands() throws IOException {
+        while (in.hasRemaining()) {
+            if (out.position() >= OUTPUT_LIMIT) {
+                return true;
+            }
+            
+            byte op = in.get(in.position());
+            if (op == Protocol.NEW_GAME) {
+                if (in.remaining() < Protocol.NEW_GAME_SIZE) {
+                    return false;
+                }
+                in.get();
+                startGame(in.getInt(), in.getInt(), in.get(), in.get(), in.getLong());
+            } else if ((op & 0xF0) == Protocol.MOVE && (op & 0x0F) < DIRECTIONS.length) {
+                in.get();
+                writeUpdate(requireGame().movePlayer(DIRECTIONS[op & 0x0F]));
+            } else if (op == Protocol.TORCH) {
+                in.get();
+                writeUpdate(requireGame().useTorch());
+            } else {
+                throw new ProtocolException("Unknown command: " + (op & 0xFF));
+            }
+            commands.incrementAndGet();
+        }
+        return false;
+    }
+    
+    private void startGame(int rows, int cols, int wallPercent, int torchPercent, long seed) throws IOException {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols < 2 || (long) rows * cols > Protocol.MAX_CELLS
+            || wallPercent < 0 || wallPercent > 100 || torchPercent < 0 || torchPercent > 100) {
+            throw new ProtocolException("Invalid game: " + rows + "x" + cols + " walls=" + wallPercent
+                + "% torches=" + torchPercent + "%");
+        }
+        
+        if (controller == null) {
+            controller = new MazeController();
+            if (journalPath != null) {
+                journal = new MoveJournal(journalPath);
+                controller.setRecorder(journal);
+            }
+        }
+        controller.initializeGame(rows, cols, wallPercent / 100.0, torchPercent / 100.0, seed);
+        
+        ensureOutput(Protocol.BOARD_SIZE);
+        out.put(Protocol.BOARD).putInt(rows).putInt(cols).putLong(seed);
+        writeUpdate(true);
+    }
+    
+    private MazeController requireGame() throws ProtocolException {
+        if (controller == null) {
+            throw new ProtocolException("No game started");
+        }
+        return controller;
+    }
+    
+    private void writeUpdate(boolean accepted) {
+        Maze maze = controller.getMaze();
+        ensureOutput(Protocol.UPDATE_HEADER_SIZE);
+        out.put(Protocol.UPDATE)
+            .put((byte) controller.getGameState().ordinal())
+            .put((byte) (accepted ? 1 : 0))
+            .putInt(maze.getPlayerRow())
+            .putInt(maze.getPlayerCol())
+            .putInt(controller.getAvailableTorches());
+        int countPosition = out.position();
+        out.putInt(0);
+        
+        int count = 0;
+        int cols = maze.getCols();
+        DirtyCells dirtyCells = maze.getDirtyCells();
+        if (dirtyCells.isAllDirty()) {
+            Visibility visibility = maze.getVisibility();
+            for (int row = 0; row < maze.getRows(); row++) {
+                for (int col = visibility.nextRevealed(row, 0); col >= 0; col = visibility.nextRevealed(row, col + 1)) {
+                    writeCell(row * cols + col, maze.getCellType(row, col));
+                    count++;
+                }
+            }
+        } else {
+            int firstRow = dirtyCells.getFirstRow();
+            for (int i = 0; i < dirtyCells.size(); i++) {
+                int index = dirtyCells.get(i);
+                int row = firstRow + index / cols;
+                int col = index % cols;
+                if (maze.isRevealed(row, col)) {
+                    writeCell(row * cols + col, maze.getCellType(row, col));
+                    count++;
+                }
+            }
+        }
+        dirtyCells.clear();
+        out.putInt(countPosition, count);
+    }
+    
+    private void writeCell(int index, CellType type) {
+        ensureOutput(Protocol.CELL_SIZE);
+        out.putInt(index).put((byte) type.ordinal());
+    }
+    
+    private void ensureOutput(int bytes) {
+        if (out.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+    }
+    
+    private boolean flush() throws IOException {
+        if (out.position() == 0) {
+            return true;
+        }
+        out.flip();
+        channel.write(out);
+        out.compact();
+        return out.position() == 0;
+    }
+}
+
+class SessionLoop implements Runnable {
+    private final Selector selector;
+    private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong commands;
+    private final AtomicLong sessions;
+    private final Path journalDirectory;
+    private volatile boolean running = true;
+    
+    SessionLoop(AtomicLong commands, AtomicLong sessions, Path journalDirectory) throws IOException {
+        this.selector = Selector.open();
+        this.commands = commands;
+        this.sessions = sessions;
+        this.journalDirectory = journalDirectory;
+    }
+    
+    void add(SocketChannel channel) {
+        pending.add(channel);
+        selector.wakeup();
+    }
+    
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+    
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(this::handle);
+                SocketChannel channel;
+                while ((channel = pending.poll()) != null) {
+                    register(channel);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                ((GameSession) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+    
+    private void register(SocketChannel channel) {
+        Path journalPath = journalDirectory == null ? null
+            : journalDirectory.resolve("session-" + sessions.incrementAndGet() + MoveJournal.EXTENSION);
+        GameSession session = new GameSession(channel, commands, journalPath);
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, session);
+        } catch (IOException e) {
+            session.close();
+        }
+    }
+    
+    private void handle(SelectionKey key) {
+        GameSession session = (GameSession) key.attachment();
+        try {
+            session.handle(key);
+        } catch (IOException | RuntimeException e) {
+            session.close();
+        }
+    }
+}
+
+public class GameServer implements Closeable {
+    private final ServerSocketChannel server;
+    private final SessionLoop[] loops;
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong sessions = new AtomicLong();
+    
+    public GameServer(InetSocketAddress address, int loopCount) throws IOException {
+        this(address, loopCount, null);
+    }
+    
+    public GameServer(InetSocketAddress address, int loopCount, Path journalDirectory) throws IOException {
+        if (loopCount <= 0) {
+            throw new IllegalArgumentException("Server needs at least one session loop: " + loopCount);
+        }
+        server = ServerSocketChannel.open();
+        server.bind(address, 1024);
+        loops = new SessionLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new SessionLoop(commands, sessions, journalDirectory);
+        }
+    }
+    
+    public void start() {
+        for (int i = 0; i < loops.length; i++) {
+            threads.add(startThread(loops[i], "maze-sessions-" + i));
+        }
+        threads.add(startThread(this::acceptConnections, "maze-acceptor"));
+    }
+    
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+    
+    public long getCommandCount() {
+        return commands.get();
+    }
+    
+    private Thread startThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+    
+    private void acceptConnections() {
+        int next = 0;
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                loops[next].add(channel);
+                next = (next + 1) % loops.length;
+            }
+        } catch (AsynchronousCloseException e) {
+            return;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (SessionLoop loop : loops) {
+            loop.stop();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String journals = System.getProperty("maze.journal");
+        
+        Path journalDirectory = null;
+        if (journals != null) {
+            journalDirectory = Files.createDirectories(Paths.get(journals));
+        }
+        GameServer server = new GameServer(new InetSocketAddress(port), loops, journalDirectory);
+        server.start();
+        System.out.printf("Serveur de labyrinthes sur le port %d (%d boucles)%n", server.getPort(), loops);
+        if (journalDirectory != null) {
+            System.out.println("Journaux des parties dans " + journalDirectory);
+        }
+        
+        long previous = 0;
+        while (true) {
+            Thread.sleep(1000);
+            long total = server.getCommandCount();
+            if (total != previous) {
+                System.out.printf("%d commandes/s%n", total - previous);
+                previous = total;
+            }
+        }
+    }
+}
+
+public class GameClient implements Closeable {
+    private static final CellType[] CELL_TYPES = CellType.values();
+    private static final GameState[] GAME_STATES = GameState.values();
+    
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocate(Protocol.NEW_GAME_SIZE);
+    private ByteBuffer in = ByteBuffer.allocate(1 << 16).flip();
+    private int rows;
+    private int cols;
+    private long seed;
+    private byte[] knownCells = new byte[0];
+    private GameState gameState;
+    private boolean accepted;
+    private int playerRow;
+    private int playerCol;
+    private int availableTorches;
+    private int updatedCells;
+    
+    public GameClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    }
+    
+    public void newGame(int rows, int cols, double wallRatio, double torchRatio, long seed) throws IOException {
+        out.clear();
+        out.put(Protocol.NEW_GAME)
+            .putInt(rows)
+            .putInt(cols)
+            .put((byte) Math.round(wallRatio * 100))
+            .put((byte) Math.round(torchRatio * 100))
+            .putLong(seed);
+        send();
+        
+        require(Protocol.BOARD_SIZE);
+        if (in.get() != Protocol.BOARD) {
+            throw new ProtocolException("Expected a board");
+        }
+        this.rows = in.getInt();
+        this.cols = in.getInt();
+        this.seed = in.getLong();
+        if (knownCells.length < rows * cols) {
+            knownCells = new byte[rows * cols];
+        } else {
+            Arrays.fill(knownCells, 0, rows * cols, (byte) 0);
+        }
+        readUpdate();
+    }
+    
+    public boolean move(Direction direction) throws IOException {
+        out.clear();
+        out.put((byte) (Protocol.MOVE | direction.ordinal()));
+        send();
+        readUpdate();
+        return accepted;
+    }
+    
+    public boolean useTorch() throws IOException {
+        out.clear();
+        out.put(Protocol.TORCH);
+        send();
+        readUpdate();
+        return accepted;
+    }
+    
+    public CellType getKnownCell(int row, int col) {
+        int known = knownCells[row * cols + col];
+        return known == 0 ? null : CELL_TYPES[known - 1];
+    }
+    
+    public int getRows() {
+        return rows;
+    }
+    
+    public int getCols() {
+        return cols;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public GameState getGameState() {
+        return gameState;
+    }
+    
+    public int getPlayerRow() {
+        return playerRow;
+    }
+    
+    public int getPlayerCol() {
+        return playerCol;
+    }
+    
+    public int getAvailableTorches() {
+        return availableTorches;
+    }
+    
+    public int getUpdatedCells() {
+        return updatedCells;
+    }
+    
+    private void send() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+    }
+    
+    private void readUpdate() throws IOException {
+        require(Protocol.UPDATE_HEADER_SIZE);
+        if (in.get() != Protocol.UPDATE) {
+            throw new ProtocolException("Expected an update");
+        }
+        gameState = GAME_STATES[in.get()];
+        accepted = in.get() != 0;
+        playerRow = in.getInt();
+        playerCol = in.getInt();
+        availableTorches = in.getInt();
+        updatedCells = in.getInt();
+        for (int i = 0; i < updatedCells; i++) {
+            require(Protocol.CELL_SIZE);
+            int index = in.getInt();
+            knownCells[index] = (byte) (in.get() + 1);
+        }
+    }
+    
+    private void require(int bytes) throws IOException {
+        while (in.remaining() < bytes) {
+            in.compact();
+            if (channel.read(in) < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+            in.flip();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
+
+public class LoadGenerator {
+    private static final int MAX_MICROS = 100_000;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : 21;
+        String host = args.length > 4 ? args[4] : null;
+        int port = args.length > 5 ? Integer.parseInt(args[5]) : 7070;
+        
+        GameServer server = null;
+        if (host == null) {
+            server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                Runtime.getRuntime().availableProcessors());
+            server.start();
+            host = InetAddress.getLoopbackAddress().getHostAddress();
+            port = server.getPort();
+        }
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        
+        try {
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Thread> workers = new ArrayList<>();
+            long[][] histograms = new long[threads][];
+            for (int t = 0; t < threads; t++) {
+                int index = t;
+                int clients = sessions / threads + (t < sessions % threads ? 1 : 0);
+                histograms[t] = new long[MAX_MICROS + 1];
+                Thread worker = new Thread(() -> {
+                    try {
+                        play(address, clients, size, index, deadline, histograms[index]);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, "maze-load-" + t);
+                worker.start();
+                workers.add(worker);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            
+            long[] histogram = new long[MAX_MICROS + 1];
+            long moves = 0;
+            for (long[] partial : histograms) {
+                for (int i = 0; i <= MAX_MICROS; i++) {
+                    histogram[i] += partial[i];
+                    moves += partial[i];
+                }
+            }
+            System.out.printf(Locale.FRANCE, "%d sessions, %d coups en %d s : %.0f coups/s%n",
+                sessions, moves, seconds, (double) moves / seconds);
+            System.out.printf(Locale.FRANCE, "latence p50 %d µs, p99 %d µs, p99,9 %d µs, max %s µs%n",
+                percentile(histogram, moves, 0.5), percentile(histogram, moves, 0.99),
+                percentile(histogram, moves, 0.999), maxLatency(histogram));
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+    
+    private static void play(InetSocketAddress address, int clientCount, int size, int worker, long deadline,
+                             long[] histogram) throws IOException {
+        SplittableRandom random = new SplittableRandom(worker);
+        GameClient[] clients = new GameClient[clientCount];
+        try {
+            for (int i = 0; i < clientCount; i++) {
+                clients[i] = new GameClient(address);
+                clients[i].newGame(size, size, 0.3, 0.1, random.nextLong());
+            }
+            while (System.nanoTime() < deadline) {
+                for (GameClient client : clients) {
+                    long start = System.nanoTime();
+                    client.move(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+                    int micros = (int) Math.min(MAX_MICROS, (System.nanoTime() - start) / 1000);
+                    histogram[micros]++;
+                    if (client.getGameState() != GameState.RUNNING) {
+                        client.newGame(size, size, 0.3, 0.1, random.nextLong());
+                    }
+                }
+            }
+        } finally {
+            for (GameClient client : clients) {
+                if (client != null) {
+                    client.close();
+                }
+            }
+        }
+    }
+    
+    private static long percentile(long[] histogram, long total, double fraction) {
+        long target = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int micros = 0; micros < histogram.length; micros++) {
+            seen += histogram[micros];
+            if (seen >= target) {
+                return micros;
+            }
+        }
+        return MAX_MICROS;
+    }
+    
+    private static String maxLatency(long[] histogram) {
+        for (int micros = histogram.length - 1; micros >= 0; micros--) {
+            if (histogram[micros] > 0) {
+                return micros == MAX_MICROS ? ">" + MAX_MICROS : Integer.toString(micros);
+            }
+        }
+        return "0";
+    }
+}
@@ -0,0 +1,347 @@
+package org.codes_maze.simulation;
+
+import org.codes_maze.controller.MazeController;
+import org.codes_maze.model.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+public class SimulationClock extends Clock {
+    private final long[] millis;
+    private final ZoneId zone;
+    
+    public SimulationClock() {
+        this(new long[1], ZoneOffset.UTC);
+    }
+    
+    private SimulationClock(long[] millis, ZoneId zone) {
+        this.millis = millis;
+        this.zone = zone;
+    }
+    
+    public void advance(long delta) {
+        millis[0] += delta;
+    }
+    
+    @Override
+    public long millis() {
+        return millis[0];
+    }
+    
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis[0]);
+    }
+    
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+    
+    @Override
+    public SimulationClock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new SimulationClock(millis, zone);
+    }
+}
+
+public interface MoveSource {
+    default void start(MazeController controller, RandomGenerator random) {
+    }
+    
+    default boolean wantsTorch(MazeController controller) {
+        return false;
+    }
+    
+    Direction nextMove(MazeController controller);
+}
+
+public class ScriptedMoves implements MoveSource {
+    private final Direction[] moves;
+    private int next;
+    
+    public ScriptedMoves(Direction... moves) {
+        this.moves = moves.clone();
+    }
+    
+    @Override
+    public void start(MazeController controller, RandomGenerator random) {
+        next = 0;
+    }
+    
+    @Override
+    public Direction nextMove(MazeController controller) {
+        return next < moves.length ? moves[next++] : null;
+    }
+}
+
+public class ExplorerAgent implements MoveSource {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int[] ROW_DELTAS = {-1, 1, 0, 0};
+    private static final int[] COL_DELTAS = {0, 0, -1, 1};
+    
+    private final BreadthFirstSolver solver = new BreadthFirstSolver();
+    private RandomGenerator random;
+    private int[] visits = new int[0];
+    private int pathStep;
+    
+    @Override
+    public void start(MazeController controller, RandomGenerator random) {
+        Maze maze = controller.getMaze();
+        int cellCount = maze.getRows() * maze.getCols();
+        if (visits.length < cellCount) {
+            visits = new int[cellCount];
+        } else {
+            Arrays.fill(visits, 0);
+        }
+        this.random = random;
+        this.pathStep = 0;
+    }
+    
+    @Override
+    public boolean wantsTorch(MazeController controller) {
+        return controller.getAvailableTorches() > 0;
+    }
+    
+    @Override
+    public Direction nextMove(MazeController controller) {
+        Maze maze = controller.getMaze();
+        int row = maze.getPlayerRow();
+        int col = maze.getPlayerCol();
+        
+        Position exit = maze.getExitPosition();
+        if (pathStep == 0 && exit != null && maze.isRevealed(exit.getRow(), exit.getCol())) {
+            pathStep = solver.solve(maze) ? 1 : -1;
+        }
+        if (pathStep > 0 && pathStep < solver.getPathLength()) {
+            int nextRow = solver.getPathRow(pathStep);
+            int nextCol = solver.getPathCol(pathStep++);
+            if (nextRow != row) {
+                return nextRow < row ? Direction.UP : Direction.DOWN;
+            }
+            return nextCol < col ? Direction.LEFT : Direction.RIGHT;
+        }
+        
+        int cols = maze.getCols();
+        int cellCount = maze.getRows() * cols;
+        if (visits.length < cellCount) {
+            visits = Arrays.copyOf(visits, Math.max(cellCount, visits.length * 2));
+        }
+        visits[row * cols + col]++;
+        
+        Direction best = null;
+        int bestVisits = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            int r = row + ROW_DELTAS[d];
+            int c = col + COL_DELTAS[d];
+            if (!maze.isInside(r, c) || maze.getCellType(r, c) == CellType.WALL) {
+                continue;
+            }
+            int count = visits[r * cols + c];
+            if (count < bestVisits) {
+                best = DIRECTIONS[d];
+                bestVisits = count;
+                ties = 1;
+            } else if (count == bestVisits && random.nextInt(++ties) == 0) {
+                best = DIRECTIONS[d];
+            }
+        }
+        return best;
+    }
+}
+
+public class SimulationStats {
+    private long games;
+    private long wins;
+    private long steps;
+    private long winningSteps;
+    private long torchesUsed;
+    private long simulatedMillis;
+    
+    public void add(boolean won, int steps, int torchesUsed, long millis) {
+        games++;
+        this.steps += steps;
+        this.torchesUsed += torchesUsed;
+        this.simulatedMillis += millis;
+        if (won) {
+            wins++;
+            winningSteps += steps;
+        }
+    }
+    
+    public void merge(SimulationStats other) {
+        games += other.games;
+        wins += other.wins;
+        steps += other.steps;
+        winningSteps += other.winningSteps;
+        torchesUsed += other.torchesUsed;
+        simulatedMillis += other.simulatedMillis;
+    }
+    
+    public long getGames() {
+        return games;
+    }
+    
+    public long getWins() {
+        return wins;
+    }
+    
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+    
+    public double getAverageSteps() {
+        return games == 0 ? 0 : (double) steps / games;
+    }
+    
+    public double getAverageWinningSteps() {
+        return wins == 0 ? 0 : (double) winningSteps / wins;
+    }
+    
+    public double getAverageTorchesUsed() {
+        return games == 0 ? 0 : (double) torchesUsed / games;
+    }
+    
+    public double getAverageGameSeconds() {
+        return games == 0 ? 0 : simulatedMillis / 1000.0 / games;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.FRANCE,
+            "%d parties, %.1f %% gagnées, %.1f pas en moyenne (%.1f pour les victoires), %.2f torches utilisées, %.1f s de jeu",
+            games, getWinRate() * 100, getAverageSteps(), getAverageWinningSteps(), getAverageTorchesUsed(),
+            getAverageGameSeconds());
+    }
+}
+
+public class SimulationRunner {
+    private static final long MOVE_MILLIS = 150;
+    
+    private final int rows;
+    private final int cols;
+    private final double wallRatio;
+    private final double torchRatio;
+    private long seed;
+    private int maxMoves;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Supplier<MoveSource> agents = ExplorerAgent::new;
+    
+    public SimulationRunner(int rows, int cols, double wallRatio, double torchRatio) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wallRatio = wallRatio;
+        this.torchRatio = torchRatio;
+        this.maxMoves = (int) Math.min(Integer.MAX_VALUE, 4L * rows * cols);
+    }
+    
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+    
+    public void setMaxMoves(int maxMoves) {
+        this.maxMoves = maxMoves;
+    }
+    
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Simulation needs at least one thread: " + threads);
+        }
+        this.threads = threads;
+    }
+    
+    public void setAgents(Supplier<MoveSource> agents) {
+        this.agents = agents;
+    }
+    
+    public SimulationStats run(long games) throws InterruptedException, ExecutionException {
+        AtomicLong nextGame = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationStats>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    SimulationStats stats = new SimulationStats();
+                    MoveSource agent = agents.get();
+                    long game;
+                    while ((game = nextGame.getAndIncrement()) < games) {
+                        playGame(game, agent, stats);
+                    }
+                    return stats;
+                }));
+            }
+            
+            SimulationStats total = new SimulationStats();
+            for (Future<SimulationStats> worker : workers) {
+                total.merge(worker.get());
+            }
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    public void playGame(long game, MoveSource agent, SimulationStats stats) {
+        long gameSeed = mix(seed + game);
+        SimulationClock clock = new SimulationClock();
+        MazeController controller = new MazeController(new Maze(), clock);
+        controller.initializeGame(rows, cols, wallRatio, torchRatio, gameSeed);
+        agent.start(controller, new SplittableRandom(gameSeed));
+        
+        for (int move = 0; move < maxMoves && controller.getGameState() == GameState.RUNNING; move++) {
+            if (agent.wantsTorch(controller)) {
+                controller.useTorch();
+            }
+            Direction direction = agent.nextMove(controller);
+            if (direction == null) {
+                break;
+            }
+            controller.movePlayer(direction);
+            clock.advance(MOVE_MILLIS);
+        }
+        
+        stats.add(controller.getGameState() == GameState.WON, controller.getStepCount(),
+            controller.getTorchesUsed(), clock.millis());
+    }
+    
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 21;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 21;
+        double wallRatio = args.length > 2 ? Double.parseDouble(args[2]) : 0.3;
+        double torchRatio = args.length > 3 ? Double.parseDouble(args[3]) : 0.1;
+        long games = args.length > 4 ? Long.parseLong(args[4]) : 100_000;
+        
+        SimulationRunner runner = new SimulationRunner(rows, cols, wallRatio, torchRatio);
+        if (args.length > 5) {
+            runner.setSeed(Long.parseLong(args[5]));
+        }
+        
+        long start = System.nanoTime();
+        SimulationStats stats = runner.run(games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        System.out.println(stats);
+        System.out.printf(Locale.FRANCE, "%.1f s, %.0f parties/s sur %d threads%n",
+            seconds, stats.getGames() / seconds, runner.threads);
+    }
+}
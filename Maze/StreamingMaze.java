@@ -0,0 +1,396 @@
+package org.codes_maze.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class StreamingMaze extends Maze implements AutoCloseable {
+    private static final int MIN_WINDOW_ROWS = 8;
+    private static final int SPILL_BLOCK_ROWS = 64;
+    private static final long DEFAULT_MAX_SPILL_BYTES = 256L << 20;
+    private static final int REVEALED_FLAG = 0x08;
+    
+    private EllerGenerator rowGenerator;
+    private byte[] window;
+    private ByteBuffer windowBuffer;
+    private int windowRows;
+    private int windowMask;
+    private int windowStart;
+    private int allocatedRows;
+    private int nextRoomRow;
+    private int lookahead;
+    private double wallRatio;
+    private double torchRatio;
+    private int[] columnPool;
+    
+    private long maxSpillBytes = DEFAULT_MAX_SPILL_BYTES;
+    private int spillRows;
+    private FileChannel spill;
+    private byte[] spilledBlock;
+    private ByteBuffer spilledBuffer;
+    private int spilledBlockStart;
+    private int spilledBlockRows;
+    private boolean spilledBlockDirty;
+    
+    public StreamingMaze() {
+        super();
+    }
+    
+    public StreamingMaze(long seed) {
+        super(seed);
+    }
+    
+    @Override
+    public void initialize(int rows, int cols, double wallRatio, double torchRatio) {
+        initialize(rows, cols, wallRatio, torchRatio, new EllerGenerator());
+    }
+    
+    @Override
+    public void initialize(int rows, int cols, double wallRatio, double torchRatio, MazeGenerator generator) {
+        if (!(generator instanceof EllerGenerator)) {
+            throw new IllegalArgumentException("Streaming mazes are generated row by row and need an EllerGenerator");
+        }
+        if (cols <= 0) {
+            throw new IllegalArgumentException("Maze must have at least one column: " + cols);
+        }
+        
+        close();
+        
+        startBoard();
+        this.rows = 0;
+        this.cols = cols;
+        this.wallRatio = wallRatio;
+        this.torchRatio = torchRatio;
+        this.windowRows = Integer.highestOneBit(Math.max(rows, MIN_WINDOW_ROWS) - 1) << 1;
+        this.windowMask = windowRows - 1;
+        this.lookahead = windowRows / 2;
+        this.window = new byte[Math.multiplyExact(windowRows, cols)];
+        this.windowBuffer = ByteBuffer.wrap(window);
+        this.windowStart = 0;
+        this.allocatedRows = 0;
+        this.nextRoomRow = 0;
+        this.columnPool = new int[cols];
+        this.spilledBlock = new byte[Math.multiplyExact(SPILL_BLOCK_ROWS, cols)];
+        this.spilledBuffer = ByteBuffer.wrap(spilledBlock);
+        this.spilledBlockStart = 0;
+        this.spilledBlockRows = 0;
+        this.spilledBlockDirty = false;
+        long spillBlocks = Math.max(1, maxSpillBytes / cols / SPILL_BLOCK_ROWS);
+        this.spillRows = (int) Math.min(spillBlocks * SPILL_BLOCK_ROWS, Integer.MAX_VALUE / SPILL_BLOCK_ROWS * SPILL_BLOCK_ROWS);
+        this.exitPosition = null;
+        dirtyCells.reset(window.length);
+        
+        try {
+            Path spillFile = Files.createTempFile("maze-rows", ".bin");
+            spill = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        rowGenerator = (EllerGenerator) generator;
+        rowGenerator.start(getRoomCols());
+        ensureRows(lookahead);
+        
+        playerRow = 0;
+        playerCol = 2 * random.nextInt(getRoomCols());
+        setCellType(playerRow, playerCol, CellType.PLAYER);
+        revealAround(playerRow, playerCol, 1);
+    }
+    
+    public void ensureRows(int row) {
+        while (rows <= row) {
+            generateRoomRow();
+        }
+    }
+    
+    public int getWindowStart() {
+        return windowStart;
+    }
+    
+    public int getWindowRows() {
+        return windowRows;
+    }
+    
+    public int getFirstRow() {
+        return Math.max(0, windowStart - spillRows);
+    }
+    
+    public void setMaxSpillBytes(long maxSpillBytes) {
+        if (maxSpillBytes <= 0) {
+            throw new IllegalArgumentException("Spill file needs a positive size: " + maxSpillBytes);
+        }
+        this.maxSpillBytes = maxSpillBytes;
+    }
+    
+    @Override
+    public boolean isInside(int row, int col) {
+        return row >= getFirstRow() && row < rows && col >= 0 && col < cols;
+    }
+    
+    @Override
+    public CellType getCellType(int row, int col) {
+        ensureRows(row);
+        return CELL_TYPES[readCell(row, col) & TYPE_MASK];
+    }
+    
+    @Override
+    public void setCellType(int row, int col, CellType type) {
+        if (row >= allocatedRows) {
+            ensureRows(row);
+        }
+        byte cell = readCell(row, col);
+        writeCell(row, col, (byte) ((cell & ~TYPE_MASK) | type.ordinal()));
+    }
+    
+    @Override
+    public boolean isRevealed(int row, int col) {
+        ensureRows(row);
+        return (readCell(row, col) & REVEALED_FLAG) != 0;
+    }
+    
+    @Override
+    public void setRevealed(int row, int col, boolean revealed) {
+        ensureRows(row);
+        byte cell = readCell(row, col);
+        writeCell(row, col, (byte) (revealed ? cell | REVEALED_FLAG : cell & ~REVEALED_FLAG));
+    }
+    
+    @Override
+    public Visibility getVisibility() {
+        throw new UnsupportedOperationException("Streaming mazes keep the revealed state in their rows, use isRevealed");
+    }
+    
+    @Override
+    boolean isPassable(int index) {
+        return getCellType(index / cols, index % cols) != CellType.WALL;
+    }
+    
+    @Override
+    public int countCells(CellType type) {
+        int ordinal = type.ordinal();
+        int count = 0;
+        for (int r = getFirstRow(); r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                if ((readCell(r, c) & TYPE_MASK) == ordinal) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    @Override
+    public int countRevealed() {
+        int count = 0;
+        for (int r = getFirstRow(); r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                count += (readCell(r, c) & REVEALED_FLAG) >>> 3;
+            }
+        }
+        return count;
+    }
+    
+    @Override
+    public void movePlayer(int row, int col) {
+        super.movePlayer(row, col);
+        ensureRows(row + lookahead);
+    }
+    
+    @Override
+    public void close() {
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            spill = null;
+        }
+    }
+    
+    private void generateRoomRow() {
+        int top = 2 * nextRoomRow;
+        while (allocatedRows <= top + 2) {
+            allocateRow();
+        }
+        
+        rowGenerator.carveRow(this, nextRoomRow++, false, random);
+        
+        finishRow(top);
+        finishRow(top + 1);
+        rows = top + 2;
+    }
+    
+    private void allocateRow() {
+        if (allocatedRows - windowStart == windowRows) {
+            spillRow(windowStart++);
+            dirtyCells.moveTo(windowStart);
+        }
+        Arrays.fill(window, offsetOf(allocatedRows), offsetOf(allocatedRows) + cols, (byte) CellType.WALL.ordinal());
+        allocatedRows++;
+    }
+    
+    private void finishRow(int row) {
+        int wall = CellType.WALL.ordinal();
+        int offset = offsetOf(row);
+        int above = row > 0 ? offsetOf(row - 1) : -1;
+        int below = offsetOf(row + 1);
+        
+        int walls = 0;
+        for (int c = 0; c < cols; c++) {
+            if ((window[offset + c] & TYPE_MASK) == wall) {
+                columnPool[walls++] = c;
+            }
+        }
+        
+        int targetWalls = (int) (cols * wallRatio);
+        int remaining = walls;
+        while (walls > targetWalls && remaining > 0) {
+            int slot = random.nextInt(remaining--);
+            int col = columnPool[slot];
+            columnPool[slot] = columnPool[remaining];
+            
+            boolean openNeighbor = (above >= 0 && (window[above + col] & TYPE_MASK) != wall)
+                || (window[below + col] & TYPE_MASK) != wall
+                || (col > 0 && (window[offset + col - 1] & TYPE_MASK) != wall)
+                || (col < cols - 1 && (window[offset + col + 1] & TYPE_MASK) != wall);
+            if (openNeighbor) {
+                window[offset + col] = (byte) CellType.EMPTY.ordinal();
+                walls--;
+            }
+        }
+        
+        int empty = 0;
+        for (int c = 0; c < cols; c++) {
+            if ((window[offset + c] & TYPE_MASK) == CellType.EMPTY.ordinal()) {
+                columnPool[empty++] = c;
+            }
+        }
+        
+        double torchChance = empty == 0 ? 0 : Math.min(1.0, torchRatio * cols / empty);
+        if (torchChance <= 0) {
+            return;
+        }
+        double logMiss = Math.log1p(-torchChance);
+        for (int i = nextTorchGap(logMiss); i < empty; i += 1 + nextTorchGap(logMiss)) {
+            window[offset + columnPool[i]] = (byte) CellType.TORCH.ordinal();
+        }
+    }
+    
+    private int nextTorchGap(double logMiss) {
+        if (logMiss == Double.NEGATIVE_INFINITY) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 1, Math.log(1.0 - random.nextDouble()) / logMiss);
+    }
+    
+    private int offsetOf(int row) {
+        return (row & windowMask) * cols;
+    }
+    
+    @Override
+    public void revealAround(int row, int col, int radius) {
+        for (int r = Math.max(0, row - radius); r <= row + radius; r++) {
+            for (int c = Math.max(0, col - radius); c <= Math.min(cols - 1, col + radius); c++) {
+                setRevealed(r, c, true);
+            }
+        }
+    }
+    
+    private byte readCell(int row, int col) {
+        if (row >= windowStart) {
+            return window[offsetOf(row) + col];
+        }
+        if (row < getFirstRow()) {
+            return (byte) CellType.WALL.ordinal();
+        }
+        return spilledBlock[spilledOffsetOf(row) + col];
+    }
+    
+    private void writeCell(int row, int col, byte value) {
+        if (row >= windowStart) {
+            int offset = offsetOf(row) + col;
+            if (window[offset] != value) {
+                window[offset] = value;
+                dirtyCells.mark((row - windowStart) * cols + col);
+            }
+        } else if (row >= getFirstRow()) {
+            int offset = spilledOffsetOf(row) + col;
+            if (spilledBlock[offset] != value) {
+                spilledBlock[offset] = value;
+                spilledBlockDirty = true;
+                dirtyCells.markAll();
+            }
+        }
+    }
+    
+    private void spillRow(int row) {
+        int replaced = row - spillRows;
+        if (replaced >= spilledBlockStart && replaced < spilledBlockStart + spilledBlockRows) {
+            flushSpilledBlock();
+            spilledBlockRows = 0;
+        }
+        int offset = offsetOf(row);
+        windowBuffer.clear().position(offset).limit(offset + cols);
+        writeFully(windowBuffer, spillPosition(row));
+    }
+    
+    private long spillPosition(int row) {
+        return (long) (row % spillRows) * cols;
+    }
+    
+    private int spilledOffsetOf(int row) {
+        if (row < spilledBlockStart || row >= spilledBlockStart + spilledBlockRows) {
+            loadSpilledBlock(row);
+        }
+        return (row - spilledBlockStart) * cols;
+    }
+    
+    private void loadSpilledBlock(int row) {
+        flushSpilledBlock();
+        
+        int blockStart = row - row % SPILL_BLOCK_ROWS;
+        int first = Math.max(blockStart, getFirstRow());
+        int count = Math.min(blockStart + SPILL_BLOCK_ROWS, windowStart) - first;
+        spilledBuffer.clear().limit(count * cols);
+        long position = spillPosition(first);
+        try {
+            while (spilledBuffer.hasRemaining()) {
+                if (spill.read(spilledBuffer, position + spilledBuffer.position()) < 0) {
+                    throw new IOException("Spilled row " + row + " is truncated");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        spilledBlockStart = first;
+        spilledBlockRows = count;
+    }
+    
+    private void flushSpilledBlock() {
+        if (spilledBlockDirty) {
+            spilledBuffer.clear().limit(spilledBlockRows * cols);
+            writeFully(spilledBuffer, spillPosition(spilledBlockStart));
+            spilledBlockDirty = false;
+        }
+    }
+    
+    private void writeFully(ByteBuffer buffer, long position) {
+        try {
+            long start = position - buffer.position();
+            while (buffer.hasRemaining()) {
+                spill.write(buffer, start + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
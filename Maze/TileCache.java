@@ -0,0 +1,126 @@
+package org.codes_maze.view;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import org.codes_maze.model.CellType;
+
+public class TileCache {
+    private static final int MIN_GLYPH_SIZE = 12;
+    private static final int HIDDEN_TILE = CellType.values().length;
+    private static final Color HIDDEN_COLOR = Color.DARKGRAY;
+    
+    private final int[] cellSizes;
+    private final Image[][] tiles;
+    private final int[][][] pixels;
+    
+    public TileCache(int[] cellSizes) {
+        this.cellSizes = cellSizes.clone();
+        this.tiles = new Image[cellSizes.length][];
+        this.pixels = new int[cellSizes.length][][];
+    }
+    
+    public Image getTile(int zoomIndex, CellType type) {
+        return tilesFor(zoomIndex)[type.ordinal()];
+    }
+    
+    public Image getHiddenTile(int zoomIndex) {
+        return tilesFor(zoomIndex)[HIDDEN_TILE];
+    }
+    
+    public int[][] getTilePixels(int zoomIndex) {
+        if (pixels[zoomIndex] == null) {
+            Image[] images = tilesFor(zoomIndex);
+            int tileSize = cellSizes[zoomIndex] - 1;
+            int[][] read = new int[images.length][tileSize * tileSize];
+            for (int i = 0; i < images.length; i++) {
+                images[i].getPixelReader().getPixels(0, 0, tileSize, tileSize,
+                    WritablePixelFormat.getIntArgbPreInstance(), read[i], 0, tileSize);
+            }
+            pixels[zoomIndex] = read;
+        }
+        return pixels[zoomIndex];
+    }
+    
+    private Image[] tilesFor(int zoomIndex) {
+        if (tiles[zoomIndex] == null) {
+            tiles[zoomIndex] = renderTiles(cellSizes[zoomIndex]);
+        }
+        return tiles[zoomIndex];
+    }
+    
+    private Image[] renderTiles(int cellSize) {
+        int tileSize = cellSize - 1;
+        Canvas canvas = new Canvas(tileSize, tileSize);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        Font glyphFont = Font.font(cellSize * 0.7);
+        Font hiddenFont = Font.font(cellSize * 0.6);
+        
+        Image[] rendered = new Image[HIDDEN_TILE + 1];
+        for (CellType type : CellType.values()) {
+            gc.clearRect(0, 0, tileSize, tileSize);
+            drawVisibleTile(gc, type, cellSize, glyphFont);
+            rendered[type.ordinal()] = snapshot(canvas, tileSize);
+        }
+        
+        gc.clearRect(0, 0, tileSize, tileSize);
+        gc.setFill(HIDDEN_COLOR);
+        gc.fillRect(0, 0, tileSize, tileSize);
+        if (cellSize >= MIN_GLYPH_SIZE) {
+            gc.setFill(Color.WHITE);
+            gc.setFont(hiddenFont);
+            gc.fillText("~", cellSize/2 - cellSize*0.15 - 1, cellSize/2 + cellSize*0.2 - 1);
+        }
+        rendered[HIDDEN_TILE] = snapshot(canvas, tileSize);
+        
+        return rendered;
+    }
+    
+    private void drawVisibleTile(GraphicsContext gc, CellType type, int cellSize, Font font) {
+        switch (type) {
+            case PLAYER:
+                drawTile(gc, Color.BLUE, "P", Color.WHITE, 0.2, cellSize, font);
+                break;
+                
+            case EXIT:
+                drawTile(gc, Color.GREEN, "E", Color.BLACK, 0.2, cellSize, font);
+                break;
+                
+            case WALL:
+                drawTile(gc, Color.BROWN, "W", Color.WHITE, 0.25, cellSize, font);
+                break;
+                
+            case TORCH:
+                drawTile(gc, Color.ORANGE, "T", Color.BLACK, 0.2, cellSize, font);
+                break;
+                
+            case EMPTY:
+                drawTile(gc, Color.LIGHTGRAY, null, null, 0, cellSize, font);
+                break;
+        }
+    }
+    
+    private void drawTile(GraphicsContext gc, Color background, String glyph, Color glyphColor,
+                          double offset, int cellSize, Font font) {
+        gc.setFill(background);
+        gc.fillRect(0, 0, cellSize - 1, cellSize - 1);
+        
+        if (glyph != null && cellSize >= MIN_GLYPH_SIZE) {
+            gc.setFill(glyphColor);
+            gc.setFont(font);
+            gc.fillText(glyph, cellSize/2 - cellSize*offset - 1, cellSize/2 + cellSize*0.25 - 1);
+        }
+    }
+    
+    private Image snapshot(Canvas canvas, int tileSize) {
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, new WritableImage(tileSize, tileSize));
+    }
+}
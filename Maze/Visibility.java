@@ -0,0 +1,182 @@
+package org.codes_maze.model;
+
+import java.util.Arrays;
+
+public class Visibility {
+    private static final int[][] OCTANTS = {
+        {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+        {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+    
+    private final DirtyCells dirtyCells;
+    private long[] bits = new long[0];
+    private int rows;
+    private int cols;
+    private int wordsPerRow;
+    
+    public Visibility(DirtyCells dirtyCells) {
+        this.dirtyCells = dirtyCells;
+    }
+    
+    public void reset(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wordsPerRow = (cols + 63) >>> 6;
+        int words = Math.multiplyExact(rows, wordsPerRow);
+        if (bits.length < words) {
+            bits = new long[words];
+        } else {
+            Arrays.fill(bits, 0, words, 0);
+        }
+        dirtyCells.markAll();
+    }
+    
+    public void clear() {
+        Arrays.fill(bits, 0, rows * wordsPerRow, 0);
+        dirtyCells.markAll();
+    }
+    
+    public boolean isRevealed(int row, int col) {
+        return (bits[row * wordsPerRow + (col >>> 6)] & (1L << col)) != 0;
+    }
+    
+    public boolean setRevealed(int row, int col, boolean revealed) {
+        int word = row * wordsPerRow + (col >>> 6);
+        long bit = 1L << col;
+        long updated = revealed ? bits[word] | bit : bits[word] & ~bit;
+        if (updated == bits[word]) {
+            return false;
+        }
+        bits[word] = updated;
+        dirtyCells.mark(row * cols + col);
+        return true;
+    }
+    
+    public int revealRect(int firstRow, int firstCol, int lastRow, int lastCol) {
+        firstRow = Math.max(0, firstRow);
+        firstCol = Math.max(0, firstCol);
+        lastRow = Math.min(rows - 1, lastRow);
+        lastCol = Math.min(cols - 1, lastCol);
+        if (firstRow > lastRow || firstCol > lastCol) {
+            return 0;
+        }
+        
+        int firstWord = firstCol >>> 6;
+        int lastWord = lastCol >>> 6;
+        long firstMask = -1L << firstCol;
+        long lastMask = -1L >>> (63 - (lastCol & 63));
+        
+        int revealed = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            int rowWords = row * wordsPerRow;
+            for (int word = firstWord; word <= lastWord; word++) {
+                long mask = -1L;
+                if (word == firstWord) mask &= firstMask;
+                if (word == lastWord) mask &= lastMask;
+                
+                long added = mask & ~bits[rowWords + word];
+                if (added != 0) {
+                    bits[rowWords + word] |= added;
+                    revealed += Long.bitCount(added);
+                    markAdded(row, word, added);
+                }
+            }
+        }
+        return revealed;
+    }
+    
+    public int nextRevealed(int row, int fromCol) {
+        if (fromCol >= cols) {
+            return -1;
+        }
+        int rowWords = row * wordsPerRow;
+        int word = fromCol >>> 6;
+        long pending = bits[rowWords + word] & (-1L << fromCol);
+        while (pending == 0) {
+            if (++word == wordsPerRow) {
+                return -1;
+            }
+            pending = bits[rowWords + word];
+        }
+        int col = (word << 6) + Long.numberOfTrailingZeros(pending);
+        return col < cols ? col : -1;
+    }
+    
+    long[] getWords() {
+        return bits;
+    }
+    
+    int getWordCount() {
+        return rows * wordsPerRow;
+    }
+    
+    public int count() {
+        int count = 0;
+        for (int i = 0, words = rows * wordsPerRow; i < words; i++) {
+            count += Long.bitCount(bits[i]);
+        }
+        return count;
+    }
+    
+    public static void shadowcast(Maze maze, int row, int col, int radius) {
+        maze.setRevealed(row, col, true);
+        for (int[] octant : OCTANTS) {
+            castLight(maze, row, col, 1, 1.0, 0.0, radius, octant[0], octant[1], octant[2], octant[3]);
+        }
+    }
+    
+    private static void castLight(Maze maze, int row, int col, int distance, double start, double end, int radius,
+                                  int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        int radiusSquared = radius * radius + radius;
+        double newStart = 0;
+        for (int j = distance; j <= radius; j++) {
+            boolean blocked = false;
+            int dy = -j;
+            for (int dx = -j; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) {
+                    continue;
+                }
+                if (end > leftSlope) {
+                    break;
+                }
+                
+                int c = col + dx * xx + dy * xy;
+                int r = row + dx * yx + dy * yy;
+                boolean inside = maze.isInside(r, c);
+                if (inside && dx * dx + dy * dy <= radiusSquared) {
+                    maze.setRevealed(r, c, true);
+                }
+                
+                boolean opaque = !inside || maze.getCellType(r, c) == CellType.WALL;
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && j < radius) {
+                    blocked = true;
+                    castLight(maze, row, col, j + 1, start, leftSlope, radius, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                break;
+            }
+        }
+    }
+    
+    private void markAdded(int row, int word, long added) {
+        int rowStart = row * cols + (word << 6);
+        while (added != 0) {
+            dirtyCells.mark(rowStart + Long.numberOfTrailingZeros(added));
+            added &= added - 1;
+        }
+    }
+}
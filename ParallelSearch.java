@@ -0,0 +1,226 @@
+package org.codes_maze.reader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+public class ParallelSearch {
+    private static final int CHUNK_BYTES = 4 << 20;
+    private static final int BUFFER_BYTES = CHUNK_BYTES + (64 << 10);
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long LOWS = 0x7F7F7F7F7F7F7F7FL;
+    
+    public interface HitListener {
+        void onHits(long[] lines, int count);
+    }
+    
+    private final MappedTextFile file;
+    private final Charset charset;
+    private final byte[] needle;
+    private final Pattern pattern;
+    private final AtomicLong hitCount = new AtomicLong();
+    
+    public ParallelSearch(MappedTextFile file, String query, boolean regex) {
+        this.file = file;
+        this.charset = file.getCharset();
+        this.needle = regex ? null : query.getBytes(charset);
+        this.pattern = regex ? Pattern.compile(query) : null;
+        if (!regex && needle.length == 0) {
+            throw new IllegalArgumentException("Empty search");
+        }
+    }
+    
+    public long run(HitListener listener, BooleanSupplier cancelled) {
+        long size = file.getIndexedBytes();
+        int chunks = (int) ((size + CHUNK_BYTES - 1) / CHUNK_BYTES);
+        hitCount.set(0);
+        if (chunks > 0) {
+            Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                if (cancelled.getAsBoolean()) {
+                    return;
+                }
+                byte[] buffer = buffers.poll();
+                if (buffer == null) {
+                    buffer = new byte[BUFFER_BYTES];
+                }
+                try {
+                    buffers.add(searchChunk(chunk, buffer, listener));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        return hitCount.get();
+    }
+    
+    private byte[] searchChunk(int chunk, byte[] buffer, HitListener listener) throws IOException {
+        long start = Math.max(lineBoundary((long) chunk * CHUNK_BYTES), file.getBomLength());
+        long end = lineBoundary((long) (chunk + 1) * CHUNK_BYTES);
+        if (start >= end) {
+            return buffer;
+        }
+        
+        int length = (int) (end - start);
+        if (buffer.length < length) {
+            buffer = new byte[length];
+        }
+        file.read(start, buffer, 0, length);
+        
+        long firstLine = file.lineAt(start);
+        Hits hits = new Hits();
+        if (pattern != null) {
+            searchRegex(buffer, length, firstLine, hits);
+        } else {
+            searchLiteral(buffer, length, firstLine, hits);
+        }
+        
+        if (hits.count > 0) {
+            hitCount.addAndGet(hits.count);
+            listener.onHits(hits.lines, hits.count);
+        }
+        return buffer;
+    }
+    
+    private long lineBoundary(long offset) {
+        long size = file.getIndexedBytes();
+        if (offset <= 0) {
+            return 0;
+        }
+        if (offset >= size) {
+            return size;
+        }
+        byte[] probe = new byte[256];
+        long position = offset - 1;
+        while (position < size) {
+            int length = (int) Math.min(probe.length, size - position);
+            file.read(position, probe, 0, length);
+            int newline = indexOf(probe, 0, length, (byte) '\n');
+            if (newline >= 0) {
+                return position + newline + 1;
+            }
+            position += length;
+        }
+        return size;
+    }
+    
+    private void searchLiteral(byte[] buffer, int length, long line, Hits hits) {
+        int position = 0;
+        int counted = 0;
+        while (true) {
+            int match = find(buffer, position, length);
+            if (match < 0) {
+                return;
+            }
+            line += countNewlines(buffer, counted, match);
+            hits.add(line);
+            
+            int newline = indexOf(buffer, match, length, (byte) '\n');
+            if (newline < 0) {
+                return;
+            }
+            line++;
+            position = newline + 1;
+            counted = position;
+        }
+    }
+    
+    private void searchRegex(byte[] buffer, int length, long line, Hits hits) {
+        Matcher matcher = pattern.matcher("");
+        int lineStart = 0;
+        while (lineStart < length) {
+            int newline = indexOf(buffer, lineStart, length, (byte) '\n');
+            int lineEnd = newline < 0 ? length : newline;
+            int contentEnd = lineEnd;
+            if (contentEnd > lineStart && buffer[contentEnd - 1] == '\r') {
+                contentEnd--;
+            }
+            
+            if (matcher.reset(new String(buffer, lineStart, contentEnd - lineStart, charset)).find()) {
+                hits.add(line);
+            }
+            line++;
+            lineStart = lineEnd + 1;
+        }
+    }
+    
+    private int find(byte[] buffer, int from, int to) {
+        byte first = needle[0];
+        int last = to - needle.length;
+        while (from <= last) {
+            int candidate = indexOf(buffer, from, last + 1, first);
+            if (candidate < 0) {
+                return -1;
+            }
+            int i = 1;
+            while (i < needle.length && buffer[candidate + i] == needle[i]) {
+                i++;
+            }
+            if (i == needle.length) {
+                return candidate;
+            }
+            from = candidate + 1;
+        }
+        return -1;
+    }
+    
+    static int indexOf(byte[] data, int from, int to, byte value) {
+        long pattern = (value & 0xFFL) * ONES;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = (long) LONGS.get(data, i) ^ pattern;
+            long found = (word - ONES) & ~word & HIGHS;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    static int countNewlines(byte[] data, int from, int to) {
+        long pattern = '\n' * ONES;
+        int count = 0;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long word = (long) LONGS.get(data, i) ^ pattern;
+            long zeroes = ~(((word & LOWS) + LOWS) | word | LOWS);
+            count += Long.bitCount(zeroes);
+        }
+        for (; i < to; i++) {
+            if (data[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static class Hits {
+        long[] lines = new long[16];
+        int count;
+        
+        void add(long line) {
+            if (count == lines.length) {
+                lines = Arrays.copyOf(lines, count * 2);
+            }
+            lines[count++] = line;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.codes_maze.reader;
+
+import org.codes_maze.metrics.Histogram;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public final class ReadMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("reader.metrics");
+    
+    private static final String DUMP_PATH = System.getProperty("reader.metrics.dump");
+    private static final long INTERVAL_MILLIS = 1000;
+    
+    private static final Histogram BYTES_PER_SECOND = new Histogram();
+    private static final Histogram LINES_PER_SECOND = new Histogram();
+    private static final Histogram CHUNK_TIME = new Histogram();
+    private static final Histogram[] HISTOGRAMS = {BYTES_PER_SECOND, LINES_PER_SECOND, CHUNK_TIME};
+    private static final String[] NAMES = {"bytes_per_s", "lines_per_s", "chunk_ns"};
+    
+    private static BufferedWriter dump;
+    
+    @Name("reader.IndexChunk")
+    @Label("Index Chunk")
+    @Category("File Reader")
+    @StackTrace(false)
+    static class IndexChunkEvent extends Event {
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+        
+        @Label("Lines")
+        long lines;
+    }
+    
+    static {
+        if (ENABLED && DUMP_PATH != null) {
+            start();
+        }
+    }
+    
+    private ReadMetrics() {
+    }
+    
+    public static boolean indexNextChunk(MappedTextFile file) throws IOException {
+        long bytes = file.getIndexedBytes();
+        long lines = file.getLineCount();
+        IndexChunkEvent event = new IndexChunkEvent();
+        event.begin();
+        long start = System.nanoTime();
+        
+        boolean more = file.indexNextChunk();
+        
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        bytes = file.getIndexedBytes() - bytes;
+        lines = file.getLineCount() - lines;
+        CHUNK_TIME.record(elapsed);
+        BYTES_PER_SECOND.record(bytes * 1_000_000_000L / elapsed);
+        LINES_PER_SECOND.record(lines * 1_000_000_000L / elapsed);
+        
+        if (event.shouldCommit()) {
+            event.bytes = bytes;
+            event.lines = lines;
+            event.commit();
+        }
+        return more;
+    }
+    
+    private static void start() {
+        try {
+            dump = Files.newBufferedWriter(Paths.get(DUMP_PATH), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            dump.write("time_ms,metric,count,mean,p50,p99,p999,max");
+            dump.newLine();
+        } catch (IOException e) {
+            System.err.println("Impossible d'ouvrir le fichier de métriques : " + e.getMessage());
+            return;
+        }
+        
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "reader-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(ReadMetrics::writeDump, INTERVAL_MILLIS, INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    private static void writeDump() {
+        if (dump == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < HISTOGRAMS.length; i++) {
+                Histogram.Summary summary = HISTOGRAMS[i].summarizeAndReset();
+                if (summary.getCount() == 0) {
+                    continue;
+                }
+                dump.write(String.format(Locale.ROOT, "%d,%s,%d,%.1f,%d,%d,%d,%d", now, NAMES[i], summary.getCount(),
+                    summary.getMean(), summary.getP50(), summary.getP99(), summary.getP999(), summary.getMax()));
+                dump.newLine();
+            }
+            dump.flush();
+        } catch (IOException e) {
+            System.err.println("Impossible d'écrire les métriques : " + e.getMessage());
+            dump = null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.codes_maze.reader;
+
+import java.util.Locale;
+
+public class ReadProgress {
+    private static final long REPORT_INTERVAL_NANOS = 16_000_000L;
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    
+    private final long totalBytes;
+    private final long startNanos;
+    private long lastReportNanos;
+    private long bytes;
+    private long lines;
+    private long windowNanos;
+    private long windowBytes;
+    private long windowLines;
+    private String currentThroughput;
+    
+    public ReadProgress(long totalBytes) {
+        this.totalBytes = totalBytes;
+        this.startNanos = System.nanoTime();
+        this.lastReportNanos = startNanos - REPORT_INTERVAL_NANOS;
+        this.windowNanos = startNanos;
+    }
+    
+    public boolean update(long bytes, long lines) {
+        this.bytes = bytes;
+        this.lines = lines;
+        
+        long now = System.nanoTime();
+        if (now - lastReportNanos < REPORT_INTERVAL_NANOS && bytes < totalBytes) {
+            return false;
+        }
+        lastReportNanos = now;
+        if (now - windowNanos >= RATE_WINDOW_NANOS) {
+            currentThroughput = formatThroughput(bytes - windowBytes, lines - windowLines, now - windowNanos);
+            windowNanos = now;
+            windowBytes = bytes;
+            windowLines = lines;
+        }
+        return true;
+    }
+    
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public long getLines() {
+        return lines;
+    }
+    
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    public String getMessage() {
+        return String.format(Locale.FRANCE, "Lecture en cours... %.1f Mo sur %.1f Mo (actuellement %s)",
+            bytes / BYTES_PER_MB, totalBytes / BYTES_PER_MB, getCurrentThroughput());
+    }
+    
+    public String getThroughput() {
+        return formatThroughput(bytes, lines, getElapsedNanos());
+    }
+    
+    public String getCurrentThroughput() {
+        return currentThroughput != null ? currentThroughput : getThroughput();
+    }
+    
+    public static String formatThroughput(long bytes, long lines, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        return String.format(Locale.FRANCE, "%.1f Mo/s, %.0f lignes/s", bytes / BYTES_PER_MB / seconds, lines / seconds);
+    }
+}
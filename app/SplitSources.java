@@ -0,0 +1,84 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public class SplitSources {
+    private static final Pattern PACKAGE = Pattern.compile("^package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern TOP_LEVEL_TYPE = Pattern.compile(
+        "^(?:@[^\\n]*\\n)*(?:public\\s+)?(?:(?:abstract|final|sealed|static)\\s+)*(?:class|enum|interface|record)\\s+(\\w+)",
+        Pattern.MULTILINE);
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java SplitSources.java <output directory> <source directory>...");
+            System.exit(2);
+        }
+        
+        Path output = Paths.get(args[0]);
+        Map<Path, Path> written = new HashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            List<Path> sources = new ArrayList<>();
+            try (Stream<Path> files = Files.list(Paths.get(args[i]))) {
+                files.filter(file -> file.getFileName().toString().endsWith(".java")).sorted().forEach(sources::add);
+            }
+            for (Path source : sources) {
+                split(source, output, written);
+            }
+        }
+        
+        if (Files.isDirectory(output)) {
+            try (Stream<Path> files = Files.walk(output)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (file.toString().endsWith(".java") && !written.containsKey(file)) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void split(Path source, Path output, Map<Path, Path> written) throws IOException {
+        String text = Files.readString(source, StandardCharsets.UTF_8);
+        Matcher packageMatcher = PACKAGE.matcher(text);
+        Path directory = output;
+        if (packageMatcher.find()) {
+            directory = output.resolve(packageMatcher.group(1).replace('.', '/'));
+        }
+        
+        Matcher matcher = TOP_LEVEL_TYPE.matcher(text);
+        List<Integer> starts = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        while (matcher.find()) {
+            starts.add(matcher.start());
+            names.add(matcher.group(1));
+        }
+        if (starts.isEmpty()) {
+            throw new IOException(source + " declares no top-level type");
+        }
+        
+        String header = text.substring(0, starts.get(0));
+        Files.createDirectories(directory);
+        for (int i = 0; i < starts.size(); i++) {
+            int end = i + 1 < starts.size() ? starts.get(i + 1) : text.length();
+            Path target = directory.resolve(names.get(i) + ".java");
+            Path previous = written.put(target, source);
+            if (previous != null) {
+                throw new IOException(names.get(i) + " is declared in both " + previous + " and " + source);
+            }
+            
+            String content = header + text.substring(starts.get(i), end);
+            if (!Files.exists(target) || !Files.readString(target, StandardCharsets.UTF_8).equals(content)) {
+                Files.writeString(target, content, StandardCharsets.UTF_8);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.codes_maze.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MazeFileTest {
+    private static final int HEADER_SIZE = 64;
+    private static final GameSnapshot GAME = new GameSnapshot(GameState.RUNNING, 3, 42, 2, 12_345);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void rawRoundTripRestoresBoardAndGame() throws IOException {
+        assertRoundTrip(false);
+    }
+    
+    @Test
+    void rleRoundTripRestoresBoardAndGame() throws IOException {
+        assertRoundTrip(true);
+    }
+    
+    @Test
+    void rleRoundTripKeepsRunsLongerThanOneToken() throws IOException {
+        Maze maze = new Maze(1);
+        byte[] cells = maze.restore(3, 700, 0, 0, 2, 699);
+        Arrays.fill(cells, (byte) CellType.EMPTY.ordinal());
+        cells[0] = (byte) CellType.PLAYER.ordinal();
+        cells[cells.length - 1] = (byte) CellType.EXIT.ordinal();
+        Arrays.fill(cells, 700, 1100, (byte) CellType.WALL.ordinal());
+        Path path = directory.resolve("runs" + MazeFile.EXTENSION);
+        
+        MazeFile.write(path, maze, GAME, true);
+        Maze loaded = new Maze();
+        MazeFile.read(path, loaded);
+        
+        assertArrayEquals(cells, loaded.getCellData());
+    }
+    
+    @Test
+    void rawFileHoldsHeaderCellsAndAlignedBitset() throws IOException {
+        Maze maze = createMaze(101, 73, 0.3);
+        Path path = directory.resolve("raw" + MazeFile.EXTENSION);
+        
+        MazeFile.write(path, maze, GAME, false);
+        
+        long bitsOffset = (HEADER_SIZE + 101 * 73 + 7) & ~7L;
+        assertEquals(bitsOffset + 101 * ((73 + 63) / 64) * Long.BYTES, Files.size(path));
+    }
+    
+    @Test
+    void rleFilesStayWithinSizeBounds() throws IOException {
+        assertTrue(rleRatio(createMaze(501, 501, 0.3)) < 0.62);
+        assertTrue(rleRatio(createMaze(501, 501, 0.0)) < 0.30);
+    }
+    
+    @Test
+    void rejectsTruncatedHeader() throws IOException {
+        Path path = writeMaze(false);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(HEADER_SIZE - 1);
+        }
+        
+        assertReadFails(path, "Not a maze file");
+    }
+    
+    @Test
+    void rejectsTruncatedBody() throws IOException {
+        Path path = writeMaze(true);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - Long.BYTES);
+        }
+        
+        assertReadFails(path, "Truncated");
+    }
+    
+    @Test
+    void rejectsWrongMagic() throws IOException {
+        Path path = writeMaze(false);
+        patch(path, 0, ByteBuffer.allocate(Integer.BYTES).putInt(0, 0x12345678));
+        
+        assertReadFails(path, "Not a maze file");
+    }
+    
+    @Test
+    void rejectsUnsupportedVersion() throws IOException {
+        Path path = writeMaze(false);
+        patch(path, 4, ByteBuffer.allocate(Short.BYTES).order(ByteOrder.LITTLE_ENDIAN).putShort(0, (short) (MazeFile.VERSION + 1)));
+        
+        assertReadFails(path, "Unsupported maze file version " + (MazeFile.VERSION + 1));
+    }
+    
+    @Test
+    void rejectsCorruptHeader() throws IOException {
+        Path path = writeMaze(false);
+        patch(path, 16, ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 1_000));
+        
+        assertReadFails(path, "Corrupted maze file header");
+    }
+    
+    @Test
+    void rejectsCorruptCells() throws IOException {
+        Path path = writeMaze(false);
+        patch(path, HEADER_SIZE, ByteBuffer.wrap(new byte[] {0x07}));
+        
+        assertReadFails(path, "Corrupted maze cells");
+    }
+    
+    private void assertRoundTrip(boolean compressed) throws IOException {
+        Maze maze = createMaze(101, 73, 0.3);
+        maze.revealLineOfSight(maze.getPlayerRow(), maze.getPlayerCol(), 3);
+        maze.setRevealed(100, 72, true);
+        Path path = directory.resolve("game" + MazeFile.EXTENSION);
+        
+        MazeFile.write(path, maze, GAME, compressed);
+        Maze loaded = new Maze();
+        GameSnapshot game = MazeFile.read(path, loaded);
+        
+        assertEquals(maze.getRows(), loaded.getRows());
+        assertEquals(maze.getCols(), loaded.getCols());
+        assertArrayEquals(maze.getCellData(), loaded.getCellData());
+        assertEquals(maze.getPlayerPosition(), loaded.getPlayerPosition());
+        assertEquals(maze.getExitPosition(), loaded.getExitPosition());
+        assertEquals(maze.countRevealed(), loaded.countRevealed());
+        for (int row = 0; row < maze.getRows(); row++) {
+            for (int col = 0; col < maze.getCols(); col++) {
+                assertEquals(maze.isRevealed(row, col), loaded.isRevealed(row, col));
+            }
+        }
+        assertEquals(GAME.getState(), game.getState());
+        assertEquals(GAME.getAvailableTorches(), game.getAvailableTorches());
+        assertEquals(GAME.getSteps(), game.getSteps());
+        assertEquals(GAME.getTorchesUsed(), game.getTorchesUsed());
+        assertEquals(GAME.getElapsedMillis(), game.getElapsedMillis());
+    }
+    
+    private double rleRatio(Maze maze) throws IOException {
+        Path raw = directory.resolve("ratio-raw" + MazeFile.EXTENSION);
+        Path rle = directory.resolve("ratio-rle" + MazeFile.EXTENSION);
+        MazeFile.write(raw, maze, GAME, false);
+        MazeFile.write(rle, maze, GAME, true);
+        return (double) Files.size(rle) / Files.size(raw);
+    }
+    
+    private Path writeMaze(boolean compressed) throws IOException {
+        Path path = directory.resolve("broken" + MazeFile.EXTENSION);
+        MazeFile.write(path, createMaze(31, 47, 0.3), GAME, compressed);
+        return path;
+    }
+    
+    private static Maze createMaze(int rows, int cols, double wallRatio) {
+        Maze maze = new Maze(7);
+        maze.initialize(rows, cols, wallRatio, 0.1);
+        return maze;
+    }
+    
+    private static void patch(Path path, long offset, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(bytes, offset);
+        }
+    }
+    
+    private static void assertReadFails(Path path, String message) {
+        IOException error = assertThrows(IOException.class, () -> MazeFile.read(path, new Maze()));
+        assertTrue(error.getMessage().startsWith(message), error.getMessage());
+    }
+}
@@ -0,0 +1,90 @@
+package org.codes_maze.benchmark;
+
+import org.codes_maze.reader.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileFollowingBenchmarks {
+    @Param({"64", "4096"})
+    int appendKilobytes;
+    
+    private Path path;
+    private byte[] block;
+    private FileChannel writer;
+    private MappedTextFile file;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        path = Files.createTempFile("file-following-benchmark", ".log");
+        FileReadingBenchmarks.writeLog(path, (long) appendKilobytes << 10);
+        byte[] log = Files.readAllBytes(path);
+        int end = appendKilobytes << 10;
+        while (log[end - 1] != '\n') {
+            end--;
+        }
+        block = Arrays.copyOf(log, end);
+    }
+    
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        writer = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        append();
+        file = new MappedTextFile(path.toFile());
+        file.indexAll();
+    }
+    
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        file.close();
+        writer.close();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+    
+    @Benchmark
+    public long appendAndIndex() throws IOException {
+        append();
+        if (!file.refresh()) {
+            throw new IllegalStateException("Appended file was taken for a truncated one");
+        }
+        file.indexAll();
+        return file.getLineCount();
+    }
+    
+    private void append() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        while (buffer.hasRemaining()) {
+            writer.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.codes_maze.benchmark;
+
+import org.codes_maze.reader.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileReadingBenchmarks {
+    @Param({"128"})
+    int megabytes;
+    
+    private Path path;
+    private MappedTextFile indexed;
+    private long lineCount;
+    private long nextLine;
+    private SplittableRandom random;
+    private byte[] sample;
+    private int sampleLength;
+    
+    @Setup
+    public void setUp() throws IOException {
+        path = Files.createTempFile("file-reading-benchmark", ".log");
+        writeLog(path, (long) megabytes << 20);
+        indexed = new MappedTextFile(path.toFile());
+        indexed.indexAll();
+        lineCount = indexed.getLineCount();
+        random = new SplittableRandom(42);
+        
+        sample = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(path)) {
+            sampleLength = in.readNBytes(sample, 0, sample.length);
+        }
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        indexed.close();
+        Files.deleteIfExists(path);
+    }
+    
+    @Benchmark
+    public long indexFile() throws IOException {
+        try (MappedTextFile file = new MappedTextFile(path.toFile())) {
+            ReadProgress progress = new ReadProgress(file.getSize());
+            boolean more = true;
+            while (more) {
+                more = file.indexNextChunk();
+                progress.update(file.getIndexedBytes(), file.getLineCount());
+            }
+            return file.getLineCount();
+        }
+    }
+    
+    @Benchmark
+    public String getLineSequential() throws IOException {
+        return indexed.getLine(nextLine++ % lineCount);
+    }
+    
+    @Benchmark
+    public String getLineRandom() throws IOException {
+        return indexed.getLine(random.nextLong(lineCount));
+    }
+    
+    @Benchmark
+    public long searchLiteral() {
+        return new ParallelSearch(indexed, "timeout", false).run((lines, count) -> { }, () -> false);
+    }
+    
+    @Benchmark
+    public long searchRegex() {
+        return new ParallelSearch(indexed, "user=\\d+7 ", true).run((lines, count) -> { }, () -> false);
+    }
+    
+    @Benchmark
+    public String detectCharset() throws IOException {
+        return CharsetDetector.detect(sample, sampleLength).name();
+    }
+    
+    static void writeLog(Path path, long size) throws IOException {
+        String[] levels = {"INFO ", "DEBUG", "WARN ", "ERROR"};
+        String[] messages = {"request handled", "cache miss", "connection timeout", "retrying after échec"};
+        SplittableRandom random = new SplittableRandom(7);
+        long written = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            for (long line = 0; written < size; line++) {
+                String text = String.format(Locale.ROOT, "2024-01-01T12:%02d:%02d.%03d %s [worker-%d] user=%d %s in %d ms%n",
+                    line / 60000 % 60, line / 1000 % 60, line % 1000, levels[random.nextInt(levels.length)],
+                    random.nextInt(16), random.nextInt(100_000), messages[random.nextInt(messages.length)],
+                    random.nextInt(500));
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                out.write(bytes);
+                written += bytes.length;
+            }
+        }
+    }
+}
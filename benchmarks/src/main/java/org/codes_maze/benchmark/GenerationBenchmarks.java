@@ -0,0 +1,127 @@
+package org.codes_maze.benchmark;
+
+import org.codes_maze.model.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmarks {
+    static final long SEED = 42;
+    
+    @State(Scope.Thread)
+    public static class Board {
+        @Param({"51", "201", "1001"})
+        int size;
+        
+        @Param({"0.0", "0.3"})
+        double wallRatio;
+        
+        Maze maze;
+        
+        @Setup
+        public void setUp() {
+            maze = new Maze(SEED);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Generated {
+        @Param({"RecursiveBacktracker", "Kruskal", "Wilson", "Eller"})
+        String generator;
+        
+        Maze maze;
+        MazeGenerator mazeGenerator;
+        
+        @Setup
+        public void setUp() {
+            maze = new Maze(SEED);
+            mazeGenerator = createGenerator(generator);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Huge {
+        Maze maze;
+        
+        @Setup
+        public void setUp() {
+            maze = new Maze(SEED);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Streaming {
+        StreamingMaze maze;
+        
+        @Setup
+        public void setUp() {
+            maze = new StreamingMaze(SEED);
+            maze.initialize(64, 1001, 0.3, 0.1);
+        }
+        
+        @TearDown
+        public void tearDown() {
+            maze.close();
+        }
+    }
+    
+    @Benchmark
+    public int initialize(Board board) {
+        board.maze.initialize(board.size, board.size, board.wallRatio, 0.1);
+        return board.maze.getPlayerRow();
+    }
+    
+    @Benchmark
+    public int generate201(Generated generated) {
+        generated.maze.initialize(201, 201, 0.3, 0.1, generated.mazeGenerator);
+        return generated.maze.getPlayerRow();
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public int initialize6001(Huge huge) {
+        huge.maze.initialize(6001, 6001, 0.3, 0.1);
+        return huge.maze.getPlayerRow();
+    }
+    
+    @Benchmark
+    public int streamRow1001(Streaming streaming) {
+        streaming.maze.ensureRows(streaming.maze.getRows());
+        return streaming.maze.getRows();
+    }
+    
+    static MazeGenerator createGenerator(String name) {
+        switch (name) {
+            case "RecursiveBacktracker":
+                return new RecursiveBacktrackerGenerator();
+            case "Kruskal":
+                return new KruskalGenerator();
+            case "Wilson":
+                return new WilsonGenerator();
+            case "Eller":
+                return new EllerGenerator();
+            default:
+                throw new IllegalArgumentException("Unknown generator: " + name);
+        }
+    }
+}
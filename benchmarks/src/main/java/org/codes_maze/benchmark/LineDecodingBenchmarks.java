@@ -0,0 +1,85 @@
+package org.codes_maze.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 8, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LineDecodingBenchmarks {
+    private static final int LINES_PER_PAGE = 256;
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+    
+    private byte[] page;
+    private final int[] starts = new int[LINES_PER_PAGE + 1];
+    private final CharsetDecoder decoder = CHARSET.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer lineBytes;
+    private CharBuffer lineChars = CharBuffer.allocate(1 << 16);
+    
+    @Setup
+    public void setUp() throws IOException {
+        Path path = Files.createTempFile("line-decoding-benchmark", ".log");
+        try {
+            FileReadingBenchmarks.writeLog(path, 1 << 16);
+            page = Files.readAllBytes(path);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+        
+        int line = 0;
+        for (int i = 0; i < page.length && line < LINES_PER_PAGE; i++) {
+            if (page[i] == '\n') {
+                starts[++line] = i + 1;
+            }
+        }
+        lineBytes = ByteBuffer.wrap(page);
+    }
+    
+    @Benchmark
+    public void charsetDecoder(Blackhole blackhole) {
+        for (int i = 0; i < LINES_PER_PAGE; i++) {
+            int start = starts[i];
+            int end = starts[i + 1] - 1;
+            lineBytes.clear().position(start).limit(end);
+            lineChars.clear();
+            decoder.reset();
+            decoder.decode(lineBytes, lineChars, true);
+            decoder.flush(lineChars);
+            blackhole.consume(lineChars.flip().toString());
+        }
+    }
+    
+    @Benchmark
+    public void newString(Blackhole blackhole) {
+        for (int i = 0; i < LINES_PER_PAGE; i++) {
+            int start = starts[i];
+            int end = starts[i + 1] - 1;
+            blackhole.consume(new String(page, start, end - start, CHARSET));
+        }
+    }
+}
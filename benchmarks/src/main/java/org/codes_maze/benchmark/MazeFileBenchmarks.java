@@ -0,0 +1,69 @@
+package org.codes_maze.benchmark;
+
+import org.codes_maze.model.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class MazeFileBenchmarks {
+    private static final GameSnapshot GAME = new GameSnapshot(GameState.RUNNING, 1, 0, 0, 0);
+    
+    @Param({"1001", "10001"})
+    int size;
+    
+    @Param({"raw", "rle"})
+    String encoding;
+    
+    private Maze maze;
+    private Path saved;
+    private Path target;
+    
+    @Setup
+    public void setUp() throws IOException {
+        maze = new Maze(GenerationBenchmarks.SEED);
+        maze.initialize(size, size, 0.3, 0.1);
+        saved = Files.createTempFile("maze-file-benchmark", MazeFile.EXTENSION);
+        target = Files.createTempFile("maze-file-benchmark", MazeFile.EXTENSION);
+        MazeFile.write(saved, maze, GAME, encoding.equals("rle"));
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saved);
+        Files.deleteIfExists(target);
+    }
+    
+    @Benchmark
+    public Maze load() throws IOException {
+        Maze loaded = new Maze();
+        MazeFile.read(saved, loaded);
+        return loaded;
+    }
+    
+    @Benchmark
+    public Path save() throws IOException {
+        MazeFile.write(target, maze, GAME, encoding.equals("rle"));
+        return target;
+    }
+}
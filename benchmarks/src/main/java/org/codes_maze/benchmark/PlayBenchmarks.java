@@ -0,0 +1,158 @@
+package org.codes_maze.benchmark;
+
+import org.codes_maze.controller.MazeController;
+import org.codes_maze.model.*;
+import org.codes_maze.simulation.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayBenchmarks {
+    private static final int SIZE = 1001;
+    private static final int POSITIONS = 4096;
+    
+    @State(Scope.Thread)
+    public static class Moves {
+        MazeController controller;
+        Direction[] moves = new Direction[POSITIONS];
+        int next;
+        
+        @Setup
+        public void setUp() {
+            controller = new MazeController(new Maze(GenerationBenchmarks.SEED));
+            controller.initializeGame(SIZE, SIZE, 0.3, 0.1);
+            Direction[] directions = Direction.values();
+            SplittableRandom random = new SplittableRandom(GenerationBenchmarks.SEED);
+            for (int i = 0; i < POSITIONS; i++) {
+                moves[i] = directions[random.nextInt(directions.length)];
+            }
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Torches {
+        MazeController controller;
+        Maze maze;
+        int[] rows = new int[POSITIONS];
+        int[] cols = new int[POSITIONS];
+        int next;
+        
+        @Setup
+        public void setUp() throws IOException {
+            Maze board = new Maze(GenerationBenchmarks.SEED);
+            board.initialize(SIZE, SIZE, 0.3, 0.1);
+            Path path = Files.createTempFile("torch-benchmark", MazeFile.EXTENSION);
+            try {
+                MazeFile.write(path, board, new GameSnapshot(GameState.RUNNING, Integer.MAX_VALUE, 0, 0, 0), false);
+                controller = new MazeController();
+                controller.loadGame(path);
+            } finally {
+                Files.deleteIfExists(path);
+            }
+            maze = controller.getMaze();
+            
+            SplittableRandom random = new SplittableRandom(GenerationBenchmarks.SEED);
+            for (int i = 0; i < POSITIONS; ) {
+                int row = random.nextInt(SIZE);
+                int col = random.nextInt(SIZE);
+                if (maze.getCellType(row, col) == CellType.EMPTY) {
+                    rows[i] = row;
+                    cols[i++] = col;
+                }
+            }
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Board {
+        Maze maze;
+        SplittableRandom random = new SplittableRandom(GenerationBenchmarks.SEED);
+        int operations;
+        
+        @Setup
+        public void setUp() {
+            maze = new Maze(GenerationBenchmarks.SEED);
+            maze.initialize(SIZE, SIZE, 0.3, 0.1);
+        }
+        
+        int nextRow() {
+            if ((++operations & (POSITIONS - 1)) == 0) {
+                maze.getVisibility().clear();
+            }
+            maze.getDirtyCells().clear();
+            return random.nextInt(SIZE);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Games {
+        SimulationRunner runner = new SimulationRunner(21, 21, 0.3, 0.1);
+        MoveSource agent = new ExplorerAgent();
+        SimulationStats stats = new SimulationStats();
+        long game;
+    }
+    
+    @Benchmark
+    public boolean movePlayer(Moves state) {
+        if (state.controller.getGameState() != GameState.RUNNING) {
+            state.controller.initializeGame(SIZE, SIZE, 0.3, 0.1);
+        }
+        return state.controller.movePlayer(state.moves[state.next++ & (POSITIONS - 1)]);
+    }
+    
+    @Benchmark
+    public boolean useTorch(Torches state) {
+        int i = state.next++ & (POSITIONS - 1);
+        if (i == 0) {
+            state.maze.getVisibility().clear();
+        }
+        state.maze.movePlayer(state.rows[i], state.cols[i]);
+        boolean used = state.controller.useTorch();
+        state.maze.getDirtyCells().clear();
+        return used;
+    }
+    
+    @Benchmark
+    public int revealAround(Board state) {
+        int row = state.nextRow();
+        state.maze.revealAround(row, state.random.nextInt(SIZE), 2);
+        return row;
+    }
+    
+    @Benchmark
+    public int revealLineOfSight(Board state) {
+        int row = state.nextRow();
+        state.maze.revealLineOfSight(row, state.random.nextInt(SIZE), 3);
+        return row;
+    }
+    
+    @Benchmark
+    public int countRevealed(Board state) {
+        return state.maze.countRevealed();
+    }
+    
+    @Benchmark
+    public long simulateGame21(Games state) {
+        state.runner.playGame(state.game++, state.agent, state.stats);
+        return state.stats.getWins();
+    }
+}
@@ -0,0 +1,55 @@
+package org.codes_maze.benchmark;
+
+import org.codes_maze.model.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmarks {
+    @Param({"BreadthFirst", "AStar", "JumpPoint"})
+    String solver;
+    
+    private Maze maze;
+    private MazeSolver mazeSolver;
+    
+    @Setup
+    public void setUp() {
+        maze = new Maze(GenerationBenchmarks.SEED);
+        maze.initialize(1001, 1001, 0.3, 0.1);
+        switch (solver) {
+            case "BreadthFirst":
+                mazeSolver = new BreadthFirstSolver();
+                break;
+            case "AStar":
+                mazeSolver = new AStarSolver();
+                break;
+            case "JumpPoint":
+                mazeSolver = new JumpPointSolver();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown solver: " + solver);
+        }
+    }
+    
+    @Benchmark
+    public int solve1001() {
+        return mazeSolver.solve(maze) ? mazeSolver.getPathLength() : 0;
+    }
+}
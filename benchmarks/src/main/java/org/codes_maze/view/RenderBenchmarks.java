@@ -0,0 +1,98 @@
+package org.codes_maze.view;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import org.codes_maze.model.Maze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw"})
+@State(Scope.Benchmark)
+public class RenderBenchmarks {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static boolean started;
+    
+    @Param({"8", "32"})
+    int cellSize;
+    
+    private Maze maze;
+    private Canvas canvas;
+    private MazeRenderer renderer;
+    private WritableImage image;
+    private MazeRasterizer rasterizer;
+    private int[][] tiles;
+    private int[] pixels;
+    private int viewX;
+    private int viewY;
+    
+    @Setup
+    public void setUp() throws Exception {
+        if (!started) {
+            Platform.startup(() -> { });
+            started = true;
+        }
+        
+        maze = new Maze(42);
+        maze.initialize(1001, 1001, 0.3, 0.1);
+        viewX = (maze.getCols() * cellSize - WIDTH) / 2;
+        viewY = (maze.getRows() * cellSize - HEIGHT) / 2;
+        onFxThread(() -> {
+            TileCache tileCache = new TileCache(new int[] {cellSize});
+            canvas = new Canvas(WIDTH, HEIGHT);
+            renderer = new MazeRenderer(canvas, tileCache, Color.GRAY);
+            renderer.setView(viewX, viewY, 0, cellSize, true);
+            image = new WritableImage(WIDTH, HEIGHT);
+            tiles = tileCache.getTilePixels(0);
+            return null;
+        });
+        rasterizer = new MazeRasterizer(Color.GRAY);
+        pixels = new int[WIDTH * HEIGHT];
+    }
+    
+    @Benchmark
+    public int drawMaze() throws Exception {
+        return onFxThread(() -> renderer.drawMaze(maze));
+    }
+    
+    @Benchmark
+    public WritableImage drawMazeAndSnapshot() throws Exception {
+        return onFxThread(() -> {
+            renderer.drawMaze(maze);
+            return canvas.snapshot(null, image);
+        });
+    }
+    
+    @Benchmark
+    public int[] rasterize() {
+        MazeRasterizer.rasterize(rasterizer.capture(maze, true, viewX, viewY, WIDTH, HEIGHT, cellSize, tiles), pixels);
+        return pixels;
+    }
+    
+    private static <T> T onFxThread(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        Platform.runLater(future);
+        return future.get();
+    }
+}
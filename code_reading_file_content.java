@@ -1,45 +1,103 @@
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
 import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ProgressBar;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
-import java.io.BufferedReader;
+import org.codes_maze.reader.*;
+
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.PatternSyntaxException;
 
 public class code_reading_file_content extends Application {
 
-    private TextArea contentTextArea;
+    private static final double LINE_HEIGHT = 18;
+    private static final int MAX_DISPLAYED_HITS = 100_000;
+
+    private ListView<String> contentView;
+    private ListView<Long> hitsView;
+    private ObservableList<Long> hits;
+    private TextField goToLineField;
+    private TextField searchField;
+    private CheckBox regexCheckBox;
+    private CheckBox followCheckBox;
+    private Button searchButton;
     private Label statusLabel;
     private Label lineCountLabel;
     private ProgressBar progressBar;
     private Button selectFileButton;
     private Button cancelButton;
     
-    private Task<List<String>> fileReadingTask;
+    private Task<MappedTextFile> fileReadingTask;
+    private Task<Long> searchTask;
+    private Task<Void> followTask;
+    private final AtomicBoolean followUpdatePending = new AtomicBoolean();
+    private MappedTextFile openedFile;
+    private FileLines fileLines;
+    private volatile String readSummary;
 
     @Override
     public void start(Stage primaryStage) {
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(10));
 
-        contentTextArea = new TextArea();
-        contentTextArea.setEditable(false);
-        contentTextArea.setWrapText(true);
-        contentTextArea.setPrefRowCount(25);
+        contentView = new ListView<>();
+        contentView.setFixedCellSize(LINE_HEIGHT);
+        
+        goToLineField = new TextField();
+        goToLineField.setPromptText("Aller à la ligne");
+        goToLineField.setPrefColumnCount(10);
+        goToLineField.setDisable(true);
+        goToLineField.setOnAction(e -> goToLine());
+        
+        searchField = new TextField();
+        searchField.setPromptText("Rechercher");
+        searchField.setDisable(true);
+        searchField.setOnAction(e -> searchFile());
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+        
+        regexCheckBox = new CheckBox("Regex");
+        regexCheckBox.setDisable(true);
+        
+        searchButton = new Button("Rechercher");
+        searchButton.setDisable(true);
+        searchButton.setOnAction(e -> searchFile());
+        
+        hits = FXCollections.observableArrayList();
+        hitsView = new ListView<>(hits);
+        hitsView.setFixedCellSize(LINE_HEIGHT);
+        hitsView.setPrefWidth(250);
+        hitsView.setCellFactory(view -> new HitCell());
+        hitsView.getSelectionModel().selectedItemProperty().addListener((obs, oldHit, hit) -> {
+            if (hit != null) {
+                showLine(hit);
+            }
+        });
+        
+        followCheckBox = new CheckBox("Suivre");
+        followCheckBox.setOnAction(e -> updateFollowing());
         
         progressBar = new ProgressBar(0);
         progressBar.setPrefWidth(Double.MAX_VALUE);
@@ -56,19 +114,28 @@ public class code_reading_file_content extends Application {
             if (fileReadingTask != null) {
                 fileReadingTask.cancel();
             }
+            if (searchTask != null) {
+                searchTask.cancel();
+            }
         });
         
-        HBox buttonBox = new HBox(10, selectFileButton, cancelButton);
+        HBox searchBox = new HBox(10, searchField, regexCheckBox, searchButton);
+        searchBox.setAlignment(Pos.CENTER_LEFT);
+        searchBox.setPadding(new Insets(0, 0, 10, 0));
+        
+        HBox buttonBox = new HBox(10, selectFileButton, cancelButton, goToLineField, followCheckBox);
         buttonBox.setAlignment(Pos.CENTER);
         
         VBox bottomBox = new VBox(10, lineCountLabel, progressBar, statusLabel, buttonBox);
         bottomBox.setPadding(new Insets(10, 0, 0, 0));
         bottomBox.setAlignment(Pos.CENTER);
         
-        root.setCenter(contentTextArea);
+        root.setTop(searchBox);
+        root.setCenter(contentView);
+        root.setRight(hitsView);
         root.setBottom(bottomBox);
         
-        Scene scene = new Scene(root, 700, 500);
+        Scene scene = new Scene(root, 950, 500);
         primaryStage.setTitle("Lecteur de Fichier Texte");
         primaryStage.setScene(scene);
         primaryStage.show();
@@ -94,41 +161,45 @@ public class code_reading_file_content extends Application {
     }
     
     private void readFile(File file) {
-        contentTextArea.clear();
+        if (searchTask != null) {
+            searchTask.cancel();
+        }
+        stopFollowing();
+        hits.clear();
+        contentView.setItems(FXCollections.observableList(Collections.emptyList()));
+        goToLineField.setDisable(true);
+        setSearchDisabled(true);
         lineCountLabel.setText("Nombre de lignes : 0");
         statusLabel.setText("Lecture du fichier...");
         selectFileButton.setDisable(true);
         cancelButton.setDisable(false);
         
-        fileReadingTask = new Task<List<String>>() {
+        closeOpenedFile();
+        
+        fileReadingTask = new Task<MappedTextFile>() {
             @Override
-            protected List<String> call() throws Exception {
-                List<String> lines = new ArrayList<>();
-                long lineCount = 0;
-                long totalLines = countLines(file);
-                updateProgress(0, totalLines);
-                
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    String line;
-                    while ((line = reader.readLine()) != null && !isCancelled()) {
-                        lines.add(line);
-                        lineCount++;
-                        updateProgress(lineCount, totalLines);
-                        updateMessage("Lecture en cours... Ligne " + lineCount + " sur " + totalLines);
-                        Thread.sleep(1);
+            protected MappedTextFile call() throws Exception {
+                MappedTextFile mappedFile = new MappedTextFile(file);
+                ReadProgress progress = new ReadProgress(mappedFile.getSize());
+                try {
+                    updateProgress(0, mappedFile.getSize());
+                    boolean more = true;
+                    while (more && !isCancelled()) {
+                        more = ReadMetrics.ENABLED ? ReadMetrics.indexNextChunk(mappedFile) : mappedFile.indexNextChunk();
+                        if (progress.update(mappedFile.getIndexedBytes(), mappedFile.getLineCount())) {
+                            updateProgress(progress.getBytes(), progress.getTotalBytes());
+                            updateMessage(progress.getMessage());
+                        }
                     }
+                    readSummary = progress.getThroughput();
+                } catch (Exception e) {
+                    mappedFile.close();
+                    throw e;
                 }
-                return lines;
-            }
-            
-            private long countLines(File file) throws IOException {
-                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                    long count = 0;
-                    while (reader.readLine() != null) {
-                        count++;
-                    }
-                    return count;
+                if (isCancelled()) {
+                    mappedFile.close();
                 }
+                return mappedFile;
             }
         };
         
@@ -136,17 +207,19 @@ public class code_reading_file_content extends Application {
         statusLabel.textProperty().bind(fileReadingTask.messageProperty());
         
         fileReadingTask.setOnSucceeded(event -> {
-            List<String> lines = fileReadingTask.getValue();
+            openedFile = fileReadingTask.getValue();
+            long lineCount = openedFile.getLineCount();
+            fileLines = new FileLines(openedFile);
+            contentView.setItems(fileLines);
+            goToLineField.setDisable(false);
+            setSearchDisabled(false);
             
-            for (String line : lines) {
-                contentTextArea.appendText(line + "\n");
-            }
-            
-            lineCountLabel.setText("Nombre de lignes : " + lines.size());
+            lineCountLabel.setText("Nombre de lignes : " + lineCount);
             statusLabel.textProperty().unbind();
-            statusLabel.setText("Lecture terminée");
+            statusLabel.setText("Lecture terminée (" + openedFile.getCharset().name() + ", " + readSummary + ")");
             selectFileButton.setDisable(false);
             cancelButton.setDisable(true);
+            updateFollowing();
         });
         
         fileReadingTask.setOnCancelled(event -> {
@@ -168,6 +241,269 @@ public class code_reading_file_content extends Application {
         thread.start();
     }
 
+    private void updateFollowing() {
+        if (!followCheckBox.isSelected()) {
+            stopFollowing();
+        } else if (followTask == null && openedFile != null) {
+            startFollowing();
+        }
+    }
+    
+    private void startFollowing() {
+        FileFollower follower;
+        try {
+            follower = new FileFollower(openedFile);
+        } catch (IOException e) {
+            statusLabel.setText("Erreur: " + e.getMessage());
+            followCheckBox.setSelected(false);
+            return;
+        }
+        
+        Task<Void> task = new Task<Void>() {
+            @Override
+            protected Void call() throws Exception {
+                try (follower) {
+                    follower.run(new FileFollower.Listener() {
+                        @Override
+                        public void onAppended(MappedTextFile file) {
+                            if (followUpdatePending.compareAndSet(false, true)) {
+                                Platform.runLater(() -> {
+                                    followUpdatePending.set(false);
+                                    if (!isCancelled()) {
+                                        showAppendedLines();
+                                    }
+                                });
+                            }
+                        }
+                        
+                        @Override
+                        public void onReopened(MappedTextFile file) {
+                            Platform.runLater(() -> {
+                                if (isCancelled()) {
+                                    closeQuietly(file);
+                                } else {
+                                    showReopenedFile(file);
+                                }
+                            });
+                        }
+                    }, this::isCancelled);
+                }
+                return null;
+            }
+        };
+        followTask = task;
+        
+        task.setOnFailed(event -> {
+            if (task == followTask) {
+                statusLabel.setText("Erreur: " + task.getException().getMessage());
+                followCheckBox.setSelected(false);
+                followTask = null;
+            }
+        });
+        
+        statusLabel.setText("Suivi de " + openedFile.getFile().getName());
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void stopFollowing() {
+        if (followTask != null) {
+            followTask.cancel();
+            followTask = null;
+        }
+    }
+    
+    private void showAppendedLines() {
+        long lineCount = openedFile.getLineCount();
+        fileLines.grow(lineCount);
+        lineCountLabel.setText("Nombre de lignes : " + lineCount);
+        contentView.scrollTo(fileLines.size() - 1);
+    }
+    
+    private void showReopenedFile(MappedTextFile file) {
+        if (searchTask != null) {
+            searchTask.cancel();
+        }
+        hits.clear();
+        closeOpenedFile();
+        openedFile = file;
+        fileLines = new FileLines(file);
+        contentView.setItems(fileLines);
+        lineCountLabel.setText("Nombre de lignes : " + file.getLineCount());
+        statusLabel.setText("Fichier tronqué ou remplacé, relu depuis le début");
+    }
+    
+    private void closeQuietly(MappedTextFile file) {
+        try {
+            file.close();
+        } catch (IOException e) {
+            statusLabel.setText("Erreur: " + e.getMessage());
+        }
+    }
+    
+    private void searchFile() {
+        String query = searchField.getText();
+        if (openedFile == null || query.isEmpty()) {
+            return;
+        }
+        
+        ParallelSearch search;
+        try {
+            search = new ParallelSearch(openedFile, query, regexCheckBox.isSelected());
+        } catch (PatternSyntaxException e) {
+            statusLabel.setText("Expression régulière invalide : " + e.getDescription());
+            return;
+        }
+        
+        if (searchTask != null) {
+            searchTask.cancel();
+        }
+        hits.clear();
+        setSearchDisabled(true);
+        selectFileButton.setDisable(true);
+        cancelButton.setDisable(false);
+        statusLabel.setText("Recherche de \"" + query + "\"...");
+        long start = System.nanoTime();
+        
+        Task<Long> task = new Task<Long>() {
+            @Override
+            protected Long call() throws Exception {
+                return search.run((lines, count) -> {
+                    long[] batch = Arrays.copyOf(lines, count);
+                    Platform.runLater(() -> addHits(this, batch));
+                }, this::isCancelled);
+            }
+        };
+        searchTask = task;
+        
+        task.setOnSucceeded(event -> {
+            FXCollections.sort(hits);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long found = task.getValue();
+            String shown = found > hits.size() ? ", " + hits.size() + " affichées" : "";
+            statusLabel.setText(found + " occurrence(s) de \"" + query + "\" en " + millis + " ms" + shown);
+            finishSearch();
+        });
+        
+        task.setOnCancelled(event -> {
+            statusLabel.setText("Recherche annulée");
+            finishSearch();
+        });
+        
+        task.setOnFailed(event -> {
+            statusLabel.setText("Erreur: " + task.getException().getMessage());
+            finishSearch();
+        });
+        
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private void addHits(Task<Long> task, long[] batch) {
+        if (task != searchTask || task.isCancelled()) {
+            return;
+        }
+        int room = MAX_DISPLAYED_HITS - hits.size();
+        for (int i = 0; i < batch.length && i < room; i++) {
+            hits.add(batch[i]);
+        }
+    }
+    
+    private void finishSearch() {
+        setSearchDisabled(openedFile == null);
+        selectFileButton.setDisable(false);
+        cancelButton.setDisable(true);
+    }
+    
+    private void setSearchDisabled(boolean disabled) {
+        searchField.setDisable(disabled);
+        regexCheckBox.setDisable(disabled);
+        searchButton.setDisable(disabled);
+    }
+
+    private void goToLine() {
+        try {
+            showLine(Long.parseLong(goToLineField.getText().trim()) - 1);
+        } catch (NumberFormatException e) {
+            statusLabel.setText("Numéro de ligne invalide : " + goToLineField.getText());
+        }
+    }
+    
+    private void showLine(long line) {
+        int index = (int) Math.max(0, Math.min(line, contentView.getItems().size() - 1));
+        contentView.scrollTo(index);
+        contentView.getSelectionModel().select(index);
+    }
+    
+    private void closeOpenedFile() {
+        if (openedFile != null) {
+            try {
+                openedFile.close();
+            } catch (IOException e) {
+                statusLabel.setText("Erreur: " + e.getMessage());
+            }
+            openedFile = null;
+        }
+    }
+
+    private class HitCell extends ListCell<Long> {
+        @Override
+        protected void updateItem(Long line, boolean empty) {
+            super.updateItem(line, empty);
+            if (empty || line == null || openedFile == null) {
+                setText(null);
+                return;
+            }
+            try {
+                setText((line + 1) + " : " + openedFile.getLine(line));
+            } catch (IOException e) {
+                setText((line + 1) + " : " + e.getMessage());
+            }
+        }
+    }
+
+    private static class FileLines extends ObservableListBase<String> {
+        private final MappedTextFile file;
+        private int size;
+        
+        FileLines(MappedTextFile file) {
+            this.file = file;
+            this.size = (int) Math.min(file.getLineCount(), Integer.MAX_VALUE);
+        }
+        
+        void grow(long lineCount) {
+            int newSize = (int) Math.min(lineCount, Integer.MAX_VALUE);
+            if (newSize < size) {
+                return;
+            }
+            beginChange();
+            if (size > 0) {
+                nextUpdate(size - 1);
+            }
+            if (newSize > size) {
+                nextAdd(size, newSize);
+                size = newSize;
+            }
+            endChange();
+        }
+        
+        @Override
+        public String get(int index) {
+            try {
+                return file.getLine(index);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }